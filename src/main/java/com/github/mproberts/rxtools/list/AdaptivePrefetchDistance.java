@@ -0,0 +1,79 @@
+package com.github.mproberts.rxtools.list;
+
+import io.reactivex.Scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A prefetch distance which infers the direction and speed of travel through the list from
+ * successive accesses. While the list is read steadily in one direction the distance in the
+ * direction of travel grows with the accumulated momentum, up to the maximum, and the distance
+ * behind the reader shrinks. A pause in access, a change of direction or a jump further than
+ * the maximum distance resets the momentum.
+ */
+class AdaptivePrefetchDistance extends PrefetchDistance
+{
+    static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 500;
+
+    private final int _baseBeforeCount;
+    private final int _baseAfterCount;
+    private final int _maxCount;
+    private final long _idleTimeoutMillis;
+    private final Scheduler _scheduler;
+
+    private int _lastIndex = -1;
+    private long _lastAccessMillis;
+    private int _direction;
+    private int _momentum;
+
+    AdaptivePrefetchDistance(int baseBeforeCount, int baseAfterCount, int maxCount, Scheduler scheduler)
+    {
+        this(baseBeforeCount, baseAfterCount, maxCount, DEFAULT_IDLE_TIMEOUT_MILLIS, scheduler);
+    }
+
+    AdaptivePrefetchDistance(int baseBeforeCount, int baseAfterCount, int maxCount, long idleTimeoutMillis, Scheduler scheduler)
+    {
+        _baseBeforeCount = baseBeforeCount;
+        _baseAfterCount = baseAfterCount;
+        _maxCount = Math.max(maxCount, Math.max(baseBeforeCount, baseAfterCount));
+        _idleTimeoutMillis = idleTimeoutMillis;
+        _scheduler = scheduler;
+    }
+
+    @Override
+    synchronized Counts onAccess(int index)
+    {
+        long now = _scheduler.now(TimeUnit.MILLISECONDS);
+        int delta = index - _lastIndex;
+        int distance = Math.abs(delta);
+
+        if (_lastIndex < 0 || now - _lastAccessMillis > _idleTimeoutMillis || distance > _maxCount) {
+            // a fresh start, a pause or a jump carries no momentum
+            _direction = 0;
+            _momentum = 0;
+        }
+        else if (delta != 0) {
+            int direction = delta > 0 ? 1 : -1;
+
+            if (direction != _direction) {
+                _direction = direction;
+                _momentum = distance;
+            }
+            else {
+                _momentum = Math.min(_maxCount, _momentum + distance);
+            }
+        }
+
+        _lastIndex = index;
+        _lastAccessMillis = now;
+
+        if (_direction > 0) {
+            return new Counts(_baseBeforeCount / (1 + _momentum), Math.min(_maxCount, _baseAfterCount + _momentum));
+        }
+        else if (_direction < 0) {
+            return new Counts(Math.min(_maxCount, _baseBeforeCount + _momentum), _baseAfterCount / (1 + _momentum));
+        }
+
+        return new Counts(_baseBeforeCount, _baseAfterCount);
+    }
+}
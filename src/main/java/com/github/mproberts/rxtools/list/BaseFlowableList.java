@@ -7,7 +7,6 @@ import io.reactivex.subjects.PublishSubject;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 
 class BaseFlowableList<T> extends FlowableList<T>
@@ -51,6 +50,17 @@ class BaseFlowableList<T> extends FlowableList<T>
         return oldPreviousList;
     }
 
+    /**
+     * Produces the immutable copy of the state sent to new subscribers, lists which are already
+     * immutable may be returned as-is
+     * @param list The present state of the list
+     * @return An immutable copy of the list
+     */
+    List<T> snapshot(List<T> list)
+    {
+        return ImmutableList.snapshotOf(list);
+    }
+
     final void applyUpdate(final Function<List<T>, Update<T>> change)
     {
         onNext(new Action() {
@@ -130,8 +140,13 @@ class BaseFlowableList<T> extends FlowableList<T>
                             public void run()
                             {
                                 if (_previousList != null) {
+                                    // snapshot the state once, subsequent subscribers share the same copy
+                                    List<T> snapshot = snapshot(_previousList);
+
+                                    _previousList = snapshot;
+
                                     observer.onNext(
-                                            new Update<>(new ArrayList<>(_previousList),
+                                            new Update<T>(snapshot,
                                                     Collections.singletonList(Change.reloaded())));
                                 }
 
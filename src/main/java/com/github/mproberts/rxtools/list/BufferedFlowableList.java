@@ -6,7 +6,6 @@ import io.reactivex.functions.Function;
 import org.reactivestreams.Publisher;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -16,43 +15,56 @@ class BufferedFlowableList<T> extends FlowableList<T>
     private final long _timeSpan;
     private final TimeUnit _timeUnit;
     private final Scheduler _scheduler;
+    private final int _maxCount;
 
     public BufferedFlowableList(FlowableList<T> list, long timeSpan, TimeUnit timeUnit, Scheduler scheduler)
+    {
+        this(list, timeSpan, timeUnit, scheduler, Integer.MAX_VALUE);
+    }
+
+    public BufferedFlowableList(FlowableList<T> list, long timeSpan, TimeUnit timeUnit, Scheduler scheduler, int maxCount)
     {
         _list = list;
         _timeSpan = timeSpan;
         _timeUnit = timeUnit;
         _scheduler = scheduler;
+        _maxCount = maxCount;
+    }
+
+    static <T> Update<T> merge(List<Update<T>> updates)
+    {
+        if (updates.size() == 0) {
+            return null;
+        }
+
+        Update<T> lastUpdate = updates.get(updates.size() - 1);
+        List<Change> allChanges = new ArrayList<>();
+
+        for (Update<T> update : updates) {
+            allChanges.addAll(update.changes);
+        }
+
+        // cancels out and folds redundant changes, it only takes one reload to force a reload
+        allChanges = ChangeCompactor.compact(allChanges, lastUpdate.list.size());
+
+        return new Update<>(lastUpdate.list, allChanges);
     }
 
     @Override
     public Flowable<Update<T>> updates()
     {
         return _list.updates()
-                .buffer(_timeSpan, _timeUnit, _scheduler)
+                .buffer(_timeSpan, _timeUnit, _scheduler, _maxCount)
                 .flatMap(new Function<List<Update<T>>, Publisher<Update<T>>>() {
                     @Override
                     public Publisher<Update<T>> apply(List<Update<T>> updates) throws Exception {
-                        if (updates.size() == 0) {
-                            return Flowable.empty();
-                        }
+                        Update<T> update = merge(updates);
 
-                        Update<T> lastUpdate = updates.get(updates.size() - 1);
-                        List<Change> allChanges = new ArrayList<>();
-
-                        for (Update<T> update : updates) {
-                            allChanges.addAll(update.changes);
-                        }
-
-                        for (Change allChange : allChanges) {
-                            // it only takes one reload to force a reload
-                            if (allChange.type == Change.Type.Reloaded) {
-                                allChanges = Collections.singletonList(Change.reloaded());
-                                break;
-                            }
+                        if (update == null) {
+                            return Flowable.empty();
                         }
 
-                        return Flowable.just(new Update<>(lastUpdate.list, allChanges));
+                        return Flowable.just(update);
                     }
                 });
     }
@@ -0,0 +1,281 @@
+package com.github.mproberts.rxtools.list;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Composes a sequence of changes into the smallest equivalent sequence. Inserted items which are
+ * later removed cancel out, chains of moves are folded into at most one move per item and the
+ * remaining changes are emitted in a canonical order: removals from the back of the list to the
+ * front, then moves, then insertions from the front of the list to the back. Neighbouring
+ * removals and insertions therefore always appear as contiguous runs.
+ *
+ * Compacting replays every change against the whole list, so its cost grows with the number of
+ * changes times the size of the list. A few changes to a large list are passed on as they are,
+ * since replaying them would cost more than applying them downstream.
+ */
+public class ChangeCompactor
+{
+    private static final int NEW_ITEM = -1;
+
+    // the most element shifts spent replaying changes before they are passed on uncompacted
+    static final long MAX_COMPACTION_COST = 1 << 20;
+
+    private ChangeCompactor()
+    {
+    }
+
+    /**
+     * Compacts the changes, falling back to a single reload when the compacted changes
+     * outnumber the items in the resulting list.
+     * @param changes The changes, in the order they were applied
+     * @param resultSize The size of the list after all changes have been applied
+     * @return The compacted list of changes
+     */
+    public static List<Change> compact(List<Change> changes, int resultSize)
+    {
+        return compact(changes, resultSize, 1.0f);
+    }
+
+    /**
+     * Compacts the changes into the smallest equivalent set of changes. Should the changes
+     * include a reload, should they be inconsistent with the list size or should the changes,
+     * before or after compacting, number more than the maximum ratio of the resulting list size,
+     * a single reload is returned instead. Too many changes are detected before compacting them,
+     * as a reload is then cheaper regardless of what the compaction would have achieved.
+     * @param changes The changes, in the order they were applied
+     * @param resultSize The size of the list after all changes have been applied
+     * @param maxChangeRatio The number of changes, relative to the resulting list size, beyond
+     *                       which a reload is cheaper to apply than the changes themselves
+     * @return The compacted list of changes
+     */
+    public static List<Change> compact(List<Change> changes, int resultSize, float maxChangeRatio)
+    {
+        if (changes.size() > resultSize * maxChangeRatio) {
+            return Collections.singletonList(Change.reloaded());
+        }
+
+        List<Change> compacted = compactChanges(changes, resultSize);
+
+        if (compacted == null || compacted.size() > resultSize * maxChangeRatio) {
+            return Collections.singletonList(Change.reloaded());
+        }
+
+        return compacted;
+    }
+
+    private static List<Change> compactChanges(List<Change> changes, int resultSize)
+    {
+        int initialSize = resultSize;
+
+        for (Change change : changes) {
+            switch (change.type) {
+                case Inserted:
+                    --initialSize;
+                    break;
+                case Removed:
+                    ++initialSize;
+                    break;
+                case Reloaded:
+                    return null;
+            }
+        }
+
+        if (initialSize < 0) {
+            return null;
+        }
+
+        if (changes.size() <= 1) {
+            return changes;
+        }
+
+        if ((long) changes.size() * Math.max(initialSize, resultSize) > MAX_COMPACTION_COST) {
+            // replaying the changes would cost more than passing them on as they are
+            return changes;
+        }
+
+        // replay the changes against the positions of the original items, marking insertions
+        int[] slots = new int[Math.max(initialSize, resultSize) + changes.size()];
+        int size = initialSize;
+
+        for (int i = 0; i < initialSize; ++i) {
+            slots[i] = i;
+        }
+
+        for (Change change : changes) {
+            switch (change.type) {
+                case Inserted:
+                    if (change.to < 0 || change.to > size) {
+                        return null;
+                    }
+
+                    System.arraycopy(slots, change.to, slots, change.to + 1, size - change.to);
+                    slots[change.to] = NEW_ITEM;
+                    ++size;
+                    break;
+                case Removed:
+                    if (change.from < 0 || change.from >= size) {
+                        return null;
+                    }
+
+                    System.arraycopy(slots, change.from + 1, slots, change.from, size - change.from - 1);
+                    --size;
+                    break;
+                case Moved:
+                    if (change.from < 0 || change.from >= size || change.to < 0 || change.to >= size) {
+                        return null;
+                    }
+
+                    int moved = slots[change.from];
+
+                    if (change.from < change.to) {
+                        System.arraycopy(slots, change.from + 1, slots, change.from, change.to - change.from);
+                    }
+                    else {
+                        System.arraycopy(slots, change.to, slots, change.to + 1, change.from - change.to);
+                    }
+
+                    slots[change.to] = moved;
+                    break;
+            }
+        }
+
+        if (size != resultSize) {
+            return null;
+        }
+
+        List<Change> compacted = new ArrayList<>();
+
+        // removals first, back to front so that earlier indexes are unaffected
+        boolean[] survived = new boolean[initialSize];
+        int survivorCount = 0;
+
+        for (int i = 0; i < size; ++i) {
+            if (slots[i] != NEW_ITEM) {
+                survived[slots[i]] = true;
+                ++survivorCount;
+            }
+        }
+
+        for (int i = initialSize - 1; i >= 0; --i) {
+            if (!survived[i]) {
+                compacted.add(Change.removed(i));
+            }
+        }
+
+        // the survivors now sit in their original order, rank them within that order
+        int[] ranks = new int[initialSize];
+
+        for (int i = 0, rank = 0; i < initialSize; ++i) {
+            if (survived[i]) {
+                ranks[i] = rank++;
+            }
+        }
+
+        int[] target = new int[survivorCount];
+
+        for (int i = 0, j = 0; i < size; ++i) {
+            if (slots[i] != NEW_ITEM) {
+                target[j++] = ranks[slots[i]];
+            }
+        }
+
+        addMoves(target, compacted);
+
+        // insertions last, front to back so that every preceding item is already in place
+        for (int i = 0; i < size; ++i) {
+            if (slots[i] == NEW_ITEM) {
+                compacted.add(Change.inserted(i));
+            }
+        }
+
+        return compacted;
+    }
+
+    /**
+     * Moves every item outside of the longest increasing subsequence of the target order
+     * directly behind its target predecessor, which is the fewest moves possible.
+     */
+    private static void addMoves(int[] target, List<Change> compacted)
+    {
+        boolean[] stationary = longestIncreasingSubsequence(target);
+        int count = target.length;
+        int[] current = new int[count];
+
+        for (int i = 0; i < count; ++i) {
+            current[i] = i;
+        }
+
+        for (int j = 0; j < count; ++j) {
+            int item = target[j];
+
+            if (stationary[item]) {
+                continue;
+            }
+
+            int from = indexOf(current, count, item);
+
+            System.arraycopy(current, from + 1, current, from, count - from - 1);
+
+            int to = j == 0 ? 0 : indexOf(current, count - 1, target[j - 1]) + 1;
+
+            System.arraycopy(current, to, current, to + 1, count - to - 1);
+            current[to] = item;
+
+            if (from != to) {
+                compacted.add(Change.moved(from, to));
+            }
+        }
+    }
+
+    private static int indexOf(int[] values, int count, int value)
+    {
+        for (int i = 0; i < count; ++i) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean[] longestIncreasingSubsequence(int[] values)
+    {
+        int count = values.length;
+        int[] tails = new int[count];
+        int[] predecessors = new int[count];
+        int length = 0;
+
+        for (int i = 0; i < count; ++i) {
+            int low = 0;
+            int high = length;
+
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+
+                if (values[tails[mid]] < values[i]) {
+                    low = mid + 1;
+                }
+                else {
+                    high = mid;
+                }
+            }
+
+            predecessors[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+
+            if (low == length) {
+                ++length;
+            }
+        }
+
+        boolean[] result = new boolean[count];
+
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = predecessors[i]) {
+            result[values[i]] = true;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,314 @@
+package com.github.mproberts.rxtools.list;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
+import io.reactivex.FlowableOnSubscribe;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Subscribes to the Flowable of every item in the underlying list and emits a list of their
+ * latest values, an item which has not yet emitted is null. The subscriptions follow the
+ * items as they are inserted, removed and moved, a reload keeps the subscriptions of any
+ * Flowables which are still present in the list.
+ *
+ * A value emitted by an item is reported as the removal and insertion of its index. Values
+ * emitted in a burst are held until the scheduler next runs and are then emitted as a single
+ * update, values emitted before an update of the underlying list are carried in that update.
+ * @param <R> The value type of the list
+ */
+class CombineLatestFlowableList<R> extends FlowableList<R>
+{
+    private final FlowableList<? extends Flowable<R>> _list;
+    private final Scheduler _scheduler;
+
+    CombineLatestFlowableList(FlowableList<? extends Flowable<R>> list, Scheduler scheduler)
+    {
+        _list = list;
+        _scheduler = scheduler;
+    }
+
+    private static class Row<R>
+    {
+        private final Flowable<R> _flowable;
+        private Disposable _subscription;
+        private R _value;
+        private boolean _isDirty;
+
+        private Row(Flowable<R> flowable)
+        {
+            _flowable = flowable;
+        }
+    }
+
+    private class CombineSubscription implements Consumer<Update<? extends Flowable<R>>>, Disposable
+    {
+        private final FlowableEmitter<Update<R>> _emitter;
+        private final Scheduler.Worker _worker;
+
+        private List<Row<R>> _rows = new ArrayList<>();
+        private boolean _hasEmitted;
+        private boolean _isFlushScheduled;
+        private boolean _isDisposed;
+
+        private final Runnable _flush = new Runnable() {
+            @Override
+            public void run()
+            {
+                flush();
+            }
+        };
+
+        CombineSubscription(FlowableEmitter<Update<R>> emitter, Scheduler.Worker worker)
+        {
+            _emitter = emitter;
+            _worker = worker;
+        }
+
+        private Row<R> attach(Flowable<R> flowable)
+        {
+            final Row<R> row = new Row<>(flowable);
+
+            row._subscription = flowable.subscribe(new Consumer<R>() {
+                @Override
+                public void accept(R value)
+                {
+                    onRowValue(row, value);
+                }
+            }, new Consumer<Throwable>() {
+                @Override
+                public void accept(Throwable error)
+                {
+                    _emitter.onError(error);
+                }
+            });
+
+            return row;
+        }
+
+        private synchronized void onRowValue(Row<R> row, R value)
+        {
+            row._value = value;
+            row._isDirty = true;
+
+            if (!_isFlushScheduled && !_isDisposed) {
+                _isFlushScheduled = true;
+                _worker.schedule(_flush);
+            }
+        }
+
+        private List<R> snapshot()
+        {
+            List<R> values = new ArrayList<>(_rows.size());
+
+            for (Row<R> row : _rows) {
+                values.add(row._value);
+            }
+
+            return ImmutableList.copyOf(values);
+        }
+
+        private void addDirtyChanges(List<Change> changes)
+        {
+            for (int i = 0; i < _rows.size(); ++i) {
+                Row<R> row = _rows.get(i);
+
+                if (row._isDirty) {
+                    row._isDirty = false;
+
+                    changes.add(Change.removed(i));
+                    changes.add(Change.inserted(i));
+                }
+            }
+        }
+
+        private List<Change> reload(List<? extends Flowable<R>> list)
+        {
+            // reuse the subscriptions of the items which are still present
+            IdentityHashMap<Flowable<R>, List<Row<R>>> previousRows = new IdentityHashMap<>();
+
+            for (Row<R> row : _rows) {
+                if (row == null) {
+                    continue;
+                }
+
+                List<Row<R>> rows = previousRows.get(row._flowable);
+
+                if (rows == null) {
+                    rows = new ArrayList<>(1);
+                    previousRows.put(row._flowable, rows);
+                }
+
+                rows.add(row);
+            }
+
+            List<Row<R>> rows = new ArrayList<>(list.size());
+
+            for (Flowable<R> flowable : list) {
+                List<Row<R>> matches = previousRows.get(flowable);
+
+                if (matches != null && !matches.isEmpty()) {
+                    rows.add(matches.remove(matches.size() - 1));
+                }
+                else {
+                    rows.add(null);
+                }
+            }
+
+            for (List<Row<R>> unused : previousRows.values()) {
+                for (Row<R> row : unused) {
+                    row._subscription.dispose();
+                }
+            }
+
+            _rows = rows;
+
+            return Collections.singletonList(Change.reloaded());
+        }
+
+        @Override
+        public synchronized void accept(Update<? extends Flowable<R>> update)
+        {
+            List<Change> changes = new ArrayList<>(update.changes);
+            boolean isReload = !_hasEmitted;
+
+            for (Change change : update.changes) {
+                if (change.type == Change.Type.Reloaded) {
+                    isReload = true;
+                }
+            }
+
+            if (!isReload) {
+                for (Change change : update.changes) {
+                    switch (change.type) {
+                        case Inserted:
+                            _rows.add(change.to, null);
+                            break;
+                        case Removed:
+                            Row<R> removed = _rows.remove(change.from);
+
+                            if (removed != null) {
+                                removed._subscription.dispose();
+                            }
+                            break;
+                        case Moved:
+                            _rows.add(change.to, _rows.remove(change.from));
+                            break;
+                    }
+                }
+
+                if (_rows.size() != update.list.size()) {
+                    isReload = true;
+                }
+            }
+
+            if (isReload) {
+                changes = reload(update.list);
+            }
+
+            List<Row<R>> attached = new ArrayList<>();
+
+            for (int i = 0; i < _rows.size(); ++i) {
+                if (_rows.get(i) == null) {
+                    Row<R> row = attach(update.list.get(i));
+
+                    _rows.set(i, row);
+                    attached.add(row);
+                }
+            }
+
+            // the values of new rows are carried by their insertion
+            for (Row<R> row : attached) {
+                row._isDirty = false;
+            }
+
+            if (!isReload) {
+                addDirtyChanges(changes);
+            }
+            else {
+                for (Row<R> row : _rows) {
+                    row._isDirty = false;
+                }
+            }
+
+            _hasEmitted = true;
+            _emitter.onNext(new Update<>(snapshot(), changes));
+        }
+
+        synchronized void flush()
+        {
+            _isFlushScheduled = false;
+
+            if (!_hasEmitted || _isDisposed) {
+                return;
+            }
+
+            List<Change> changes = new ArrayList<>();
+
+            addDirtyChanges(changes);
+
+            if (!changes.isEmpty()) {
+                _emitter.onNext(new Update<>(snapshot(), changes));
+            }
+        }
+
+        @Override
+        public synchronized void dispose()
+        {
+            _isDisposed = true;
+
+            for (Row<R> row : _rows) {
+                if (row != null) {
+                    row._subscription.dispose();
+                }
+            }
+
+            _rows = new ArrayList<>();
+        }
+
+        @Override
+        public synchronized boolean isDisposed()
+        {
+            return _isDisposed;
+        }
+    }
+
+    @Override
+    public Flowable<Update<R>> updates()
+    {
+        return Flowable.create(new FlowableOnSubscribe<Update<R>>() {
+            @Override
+            public void subscribe(final FlowableEmitter<Update<R>> emitter)
+            {
+                final Scheduler.Worker worker = _scheduler.createWorker();
+                final CombineSubscription subscription = new CombineSubscription(emitter.serialize(), worker);
+
+                Disposable updates = _list.updates().subscribe(subscription, new Consumer<Throwable>() {
+                    @Override
+                    public void accept(Throwable error)
+                    {
+                        emitter.onError(error);
+                    }
+                }, new Action() {
+                    @Override
+                    public void run()
+                    {
+                        subscription.flush();
+                        emitter.onComplete();
+                    }
+                });
+
+                emitter.setDisposable(new CompositeDisposable(updates, worker, subscription));
+            }
+        }, BackpressureStrategy.BUFFER);
+    }
+}
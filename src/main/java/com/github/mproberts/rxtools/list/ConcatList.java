@@ -2,202 +2,118 @@ package com.github.mproberts.rxtools.list;
 
 import java.util.*;
 
+/**
+ * An unmodifiable view over a sequence of lists. The sizes of the lists are captured on
+ * construction so that an element can be located with a binary search over the offset
+ * of each list rather than walking the lists in turn.
+ */
 class ConcatList implements List
 {
     private final List[] _lists;
-    private int _totalSize;
+    private final int[] _offsets;
+    private final int _totalSize;
 
-    private class ConcatIterator implements Iterator
+    /**
+     * Walks the concatenated lists by position. Lists which support random access are read
+     * by index, a child iterator is only created for other lists once the cursor reaches them.
+     */
+    private class ConcatListIterator implements ListIterator
     {
-        private final Iterator[] _iterators;
-        private int _currentIteratorIndex;
+        private int _index;
+        private int _listIndex = -1;
+        private ListIterator _childIterator;
 
-        public ConcatIterator(List[] _lists)
+        ConcatListIterator(int index)
         {
-            _iterators = new Iterator[_lists.length];
-
-            for (int i = 0; i < _lists.length; ++i) {
-                _iterators[i] = _lists[i].iterator();
-            }
+            _index = index;
         }
 
-        private Iterator currentIterator()
+        private void moveTo(int index)
         {
-            if (_iterators.length == 0) {
-                return null;
+            if (_listIndex >= 0 && index >= _offsets[_listIndex] && index < _offsets[_listIndex + 1]) {
+                return;
             }
 
-            return _iterators[_currentIteratorIndex];
-        }
+            _listIndex = listIndexOf(index);
 
-        private boolean nextIterator()
-        {
-            ++_currentIteratorIndex;
+            List list = _lists[_listIndex];
 
-            if (_currentIteratorIndex >= _iterators.length) {
-                _currentIteratorIndex = _iterators.length;
-                return false;
+            if (list instanceof RandomAccess) {
+                _childIterator = null;
+            }
+            else {
+                _childIterator = list.listIterator(_index - _offsets[_listIndex]);
             }
-
-            return true;
         }
 
         @Override
         public boolean hasNext()
         {
-            if (currentIterator() == null) {
-                return false;
-            }
-
-            if (currentIterator().hasNext()) {
-                return true;
-            }
-
-            while (nextIterator()) {
-                if (currentIterator().hasNext()) {
-                    return true;
-                }
-            }
-
-            return false;
+            return _index < _totalSize;
         }
 
         @Override
         public Object next()
         {
-            while (!currentIterator().hasNext() && nextIterator()) {
-                if (currentIterator().hasNext()) {
-                    break;
-                }
+            if (_index >= _totalSize) {
+                throw new NoSuchElementException();
             }
 
-            return currentIterator().next();
-        }
+            moveTo(_index);
 
-        @Override
-        public void remove()
-        {
-            throw new UnsupportedOperationException("Not modifiable");
-        }
-    }
+            Object value;
 
-    private class ConcatListIterator implements ListIterator
-    {
-        private final ListIterator[] _iterators;
-        private int _currentIteratorIndex;
-        private int _offset;
-
-        public ConcatListIterator(List[] lists)
-        {
-            _iterators = new ListIterator[lists.length];
-
-            for (int i = 0; i < lists.length; ++i) {
-                _iterators[i] = lists[i].listIterator();
+            if (_childIterator == null) {
+                value = _lists[_listIndex].get(_index - _offsets[_listIndex]);
             }
-        }
-
-        private ListIterator currentIterator()
-        {
-            if (_iterators.length == 0) {
-                return null;
-            }
-            else if (_currentIteratorIndex >= _iterators.length) {
-                return null;
-            }
-
-            return _iterators[_currentIteratorIndex];
-        }
-
-        private boolean previousIterator()
-        {
-            --_currentIteratorIndex;
-
-            if (_currentIteratorIndex < 0) {
-                _currentIteratorIndex = 0;
-                return false;
+            else {
+                value = _childIterator.next();
             }
 
-            return true;
-        }
-
-        private boolean nextIterator()
-        {
-            ++_currentIteratorIndex;
+            ++_index;
 
-            if (_currentIteratorIndex >= _iterators.length) {
-                _currentIteratorIndex = _iterators.length - 1;
-                return false;
-            }
-
-            return true;
+            return value;
         }
 
         @Override
-        public boolean hasNext()
+        public boolean hasPrevious()
         {
-            if (currentIterator() == null) {
-                return false;
-            }
-
-            if (currentIterator().hasNext()) {
-                return true;
-            }
-
-            while (nextIterator()) {
-                if (currentIterator().hasNext()) {
-                    return true;
-                }
-            }
-
-            return false;
+            return _index > 0;
         }
 
         @Override
-        public Object next()
+        public Object previous()
         {
-            ++_offset;
+            if (_index <= 0) {
+                throw new NoSuchElementException();
+            }
 
-            return currentIterator().next();
-        }
+            moveTo(_index - 1);
 
-        @Override
-        public boolean hasPrevious()
-        {
-            if (currentIterator() == null) {
-                return false;
-            }
+            Object value;
 
-            if (currentIterator().hasPrevious()) {
-                return true;
+            if (_childIterator == null) {
+                value = _lists[_listIndex].get(_index - 1 - _offsets[_listIndex]);
             }
-
-            while (previousIterator()) {
-                if (currentIterator().hasPrevious()) {
-                    return true;
-                }
+            else {
+                value = _childIterator.previous();
             }
 
-            return false;
-        }
+            --_index;
 
-        @Override
-        public Object previous()
-        {
-            --_offset;
-
-            return currentIterator().previous();
+            return value;
         }
 
         @Override
         public int nextIndex()
         {
-            return _offset;
+            return _index;
         }
 
         @Override
         public int previousIndex()
         {
-            return _offset - 1;
+            return _index - 1;
         }
 
         @Override
@@ -221,22 +137,45 @@ class ConcatList implements List
 
     ConcatList(List... lists)
     {
+        int[] offsets = new int[lists.length + 1];
+
+        for (int i = 0; i < lists.length; ++i) {
+            offsets[i + 1] = offsets[i] + lists[i].size();
+        }
+
         _lists = lists;
+        _offsets = offsets;
+        _totalSize = offsets[lists.length];
     }
 
-    @Override
-    public int size()
+    /**
+     * Finds the list holding the element at the index, skipping over any empty lists
+     * @param index An index within the bounds of the concatenated list
+     * @return The position of the list holding the element
+     */
+    private int listIndexOf(int index)
     {
-        if (_totalSize == 0) {
-            int totalSize = 0;
+        // the last list which starts at or before the index
+        int low = 0;
+        int high = _lists.length - 1;
 
-            for (List list : _lists) {
-                totalSize += list.size();
-            }
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
 
-            _totalSize = totalSize;
+            if (_offsets[mid] <= index) {
+                low = mid;
+            }
+            else {
+                high = mid - 1;
+            }
         }
 
+        return low;
+    }
+
+    @Override
+    public int size()
+    {
         return _totalSize;
     }
 
@@ -249,7 +188,7 @@ class ConcatList implements List
     @Override
     public Iterator iterator()
     {
-        return new ConcatIterator(_lists);
+        return new ConcatListIterator(0);
     }
 
     @Override
@@ -275,53 +214,35 @@ class ConcatList implements List
     @Override
     public Object get(int index)
     {
-        int offset = 0;
-        Object result = null;
-
         if (index < 0) {
             throw new IndexOutOfBoundsException(index + " < 0");
         }
-        else if (index >= size()) {
-            throw new IndexOutOfBoundsException(index + " >= " + size());
+        else if (index >= _totalSize) {
+            throw new IndexOutOfBoundsException(index + " >= " + _totalSize);
         }
 
-        for (List list : _lists) {
-            int size = list.size();
-
-            if (offset + size > index) {
-                result = list.get(index - offset);
-                break;
-            }
-
-            offset += size;
-        }
+        int listIndex = listIndexOf(index);
 
-        return result;
+        return _lists[listIndex].get(index - _offsets[listIndex]);
     }
 
     @Override
     public ListIterator listIterator()
     {
-        return new ConcatListIterator(_lists);
+        return new ConcatListIterator(0);
     }
 
     @Override
     public ListIterator listIterator(int index)
     {
-        ConcatListIterator concatListIterator = new ConcatListIterator(_lists);
-
-        if (index >= size()) {
-            throw new IndexOutOfBoundsException(index + " >= " + size());
+        if (index < 0) {
+            throw new IndexOutOfBoundsException(index + " < 0");
         }
-
-        int offset = 0;
-
-        while (concatListIterator.hasNext() && offset < index) {
-            offset++;
-            concatListIterator.next();
+        else if (index > _totalSize) {
+            throw new IndexOutOfBoundsException(index + " > " + _totalSize);
         }
 
-        return concatListIterator;
+        return new ConcatListIterator(index);
     }
 
     @Override
@@ -0,0 +1,232 @@
+package com.github.mproberts.rxtools.list;
+
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps a list so that subscribers which have not requested more updates do not cause the
+ * updates to queue up. Instead, pending updates are merged into a single update which carries
+ * only the most recent list state along with the compacted, combined changes. Should the combined
+ * changes grow beyond the maximum, they are replaced with a single reload.
+ * @param <T> The value type of the list
+ */
+class ConflatingFlowableList<T> extends FlowableList<T>
+{
+    static final int DEFAULT_MAX_CHANGES = 256;
+
+    private final FlowableList<T> _list;
+    private final int _maxChanges;
+
+    ConflatingFlowableList(FlowableList<T> list, int maxChanges)
+    {
+        _list = list;
+        _maxChanges = maxChanges;
+    }
+
+    static <T> Update<T> merge(Update<T> previous, Update<T> next, int maxChanges)
+    {
+        if (previous == null) {
+            return next;
+        }
+
+        List<Change> allChanges = new ArrayList<>(previous.changes.size() + next.changes.size());
+
+        allChanges.addAll(previous.changes);
+        allChanges.addAll(next.changes);
+
+        allChanges = ChangeCompactor.compact(allChanges, next.list.size());
+
+        if (allChanges.size() > maxChanges) {
+            return new Update<>(next.list, Change.reloaded());
+        }
+
+        return new Update<>(next.list, allChanges);
+    }
+
+    @Override
+    public Flowable<Update<T>> updates()
+    {
+        final Flowable<Update<T>> updates = _list.updates();
+
+        return new Flowable<Update<T>>() {
+            @Override
+            protected void subscribeActual(Subscriber<? super Update<T>> subscriber)
+            {
+                updates.subscribe(new ConflatingSubscriber<>(subscriber, _maxChanges));
+            }
+        };
+    }
+
+    private static class ConflatingSubscriber<T> implements FlowableSubscriber<Update<T>>, Subscription
+    {
+        private final Subscriber<? super Update<T>> _downstream;
+        private final int _maxChanges;
+
+        private final Object _lock = new Object();
+        private final AtomicInteger _drainCount = new AtomicInteger();
+        private final AtomicLong _requested = new AtomicLong();
+
+        private Subscription _upstream;
+        private Update<T> _pending;
+
+        private volatile boolean _done;
+        private volatile boolean _cancelled;
+        private Throwable _error;
+
+        ConflatingSubscriber(Subscriber<? super Update<T>> downstream, int maxChanges)
+        {
+            _downstream = downstream;
+            _maxChanges = maxChanges;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription)
+        {
+            _upstream = subscription;
+
+            _downstream.onSubscribe(this);
+
+            // we consume everything, the merging takes the place of buffering
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(Update<T> update)
+        {
+            if (_done) {
+                return;
+            }
+
+            synchronized (_lock) {
+                _pending = merge(_pending, update, _maxChanges);
+            }
+
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable error)
+        {
+            _error = error;
+            _done = true;
+
+            drain();
+        }
+
+        @Override
+        public void onComplete()
+        {
+            _done = true;
+
+            drain();
+        }
+
+        @Override
+        public void request(long n)
+        {
+            if (n <= 0) {
+                // a non-positive request violates rule 3.9, the stream is ended with an error
+                _upstream.cancel();
+
+                synchronized (_lock) {
+                    _pending = null;
+                }
+
+                _error = new IllegalArgumentException("n > 0 required but it was " + n);
+                _done = true;
+
+                drain();
+
+                return;
+            }
+
+            for (;;) {
+                long current = _requested.get();
+                long updated = current + n;
+
+                if (updated < 0) {
+                    updated = Long.MAX_VALUE;
+                }
+
+                if (_requested.compareAndSet(current, updated)) {
+                    break;
+                }
+            }
+
+            drain();
+        }
+
+        @Override
+        public void cancel()
+        {
+            _cancelled = true;
+            _upstream.cancel();
+
+            drain();
+        }
+
+        private void drain()
+        {
+            if (_drainCount.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+
+            for (;;) {
+                if (_cancelled) {
+                    synchronized (_lock) {
+                        _pending = null;
+                    }
+                    return;
+                }
+
+                boolean done = _done;
+                Update<T> update = null;
+                boolean isEmpty;
+
+                synchronized (_lock) {
+                    if (_pending != null && _requested.get() > 0) {
+                        update = _pending;
+                        _pending = null;
+                    }
+
+                    isEmpty = _pending == null;
+                }
+
+                if (update != null) {
+                    _downstream.onNext(update);
+
+                    if (_requested.get() != Long.MAX_VALUE) {
+                        _requested.decrementAndGet();
+                    }
+                }
+
+                if (done && isEmpty) {
+                    Throwable error = _error;
+
+                    if (error != null) {
+                        _downstream.onError(error);
+                    }
+                    else {
+                        _downstream.onComplete();
+                    }
+                    return;
+                }
+
+                missed = _drainCount.addAndGet(-missed);
+
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.mproberts.rxtools.list;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
+import io.reactivex.FlowableOnSubscribe;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers updates to the underlying list until it has been quiet for the timeout. An update
+ * arriving after a quiet period is emitted immediately, while a burst of updates is coalesced
+ * into a single update which is emitted once the burst settles, once the oldest buffered update
+ * has waited for the maximum wait or once the maximum number of updates has been buffered,
+ * whichever comes first.
+ * @param <T> The value type of the list
+ */
+class DebouncedFlowableList<T> extends FlowableList<T>
+{
+    private final FlowableList<T> _list;
+    private final long _timeout;
+    private final long _maxWait;
+    private final int _maxCount;
+    private final TimeUnit _timeUnit;
+    private final Scheduler _scheduler;
+
+    DebouncedFlowableList(FlowableList<T> list, long timeout, long maxWait, int maxCount, TimeUnit timeUnit, Scheduler scheduler)
+    {
+        _list = list;
+        _timeout = timeout;
+        _maxWait = maxWait;
+        _maxCount = maxCount;
+        _timeUnit = timeUnit;
+        _scheduler = scheduler;
+    }
+
+    private class DebounceSubscription implements Consumer<Update<T>>
+    {
+        private final FlowableEmitter<Update<T>> _emitter;
+        private final Scheduler.Worker _worker;
+
+        private List<Update<T>> _pending = new ArrayList<>();
+        private long _lastEmission = Long.MIN_VALUE;
+        private Disposable _quietTimer;
+        private Disposable _maxWaitTimer;
+
+        private final Runnable _flush = new Runnable() {
+            @Override
+            public void run()
+            {
+                flush();
+            }
+        };
+
+        DebounceSubscription(FlowableEmitter<Update<T>> emitter, Scheduler.Worker worker)
+        {
+            _emitter = emitter;
+            _worker = worker;
+        }
+
+        @Override
+        public synchronized void accept(Update<T> update)
+        {
+            long now = _worker.now(_timeUnit);
+
+            if (_pending.isEmpty() && (_lastEmission == Long.MIN_VALUE || now - _lastEmission >= _timeout)) {
+                // the list has been quiet, there is nothing to coalesce with
+                _lastEmission = now;
+                _emitter.onNext(update);
+                return;
+            }
+
+            _pending.add(update);
+
+            if (_pending.size() >= _maxCount) {
+                flush();
+                return;
+            }
+
+            if (_quietTimer != null) {
+                _quietTimer.dispose();
+            }
+
+            _quietTimer = _worker.schedule(_flush, _timeout, _timeUnit);
+
+            if (_maxWaitTimer == null) {
+                _maxWaitTimer = _worker.schedule(_flush, _maxWait, _timeUnit);
+            }
+        }
+
+        synchronized void flush()
+        {
+            if (_quietTimer != null) {
+                _quietTimer.dispose();
+                _quietTimer = null;
+            }
+
+            if (_maxWaitTimer != null) {
+                _maxWaitTimer.dispose();
+                _maxWaitTimer = null;
+            }
+
+            Update<T> update = BufferedFlowableList.merge(_pending);
+
+            _pending = new ArrayList<>();
+
+            if (update != null) {
+                _lastEmission = _worker.now(_timeUnit);
+                _emitter.onNext(update);
+            }
+        }
+    }
+
+    @Override
+    public Flowable<Update<T>> updates()
+    {
+        return Flowable.create(new FlowableOnSubscribe<Update<T>>() {
+            @Override
+            public void subscribe(final FlowableEmitter<Update<T>> emitter)
+            {
+                final Scheduler.Worker worker = _scheduler.createWorker();
+                final DebounceSubscription subscription = new DebounceSubscription(emitter, worker);
+
+                Disposable updates = _list.updates().subscribe(subscription, new Consumer<Throwable>() {
+                    @Override
+                    public void accept(Throwable error)
+                    {
+                        subscription.flush();
+                        emitter.onError(error);
+                    }
+                }, new Action() {
+                    @Override
+                    public void run()
+                    {
+                        subscription.flush();
+                        emitter.onComplete();
+                    }
+                });
+
+                emitter.setDisposable(new CompositeDisposable(updates, worker));
+            }
+        }, BackpressureStrategy.BUFFER);
+    }
+}
@@ -4,7 +4,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /*
  * Copyright (C) 2016 The Android Open Source Project
@@ -33,36 +38,443 @@ public class Diff
         }
     };
 
+    /**
+     * The Myers diff, producing a minimal set of insertions and removals
+     */
+    public static final DiffAlgorithm MYERS = new DiffAlgorithm() {
+        @Override
+        public <T> List<Change> calculateDiff(List<T> original, List<T> updated, boolean detectMoves) {
+            return Diff.calculateDiff(original, updated, detectMoves);
+        }
+    };
+
+    /**
+     * The patience diff, anchoring on items which occur once in each list. Faster than Myers on
+     * large, dissimilar lists and less prone to matching up unrelated repeated items, at the
+     * cost of not always producing a minimal set of changes.
+     */
+    public static final DiffAlgorithm PATIENCE = new DiffAlgorithm() {
+        @Override
+        public <T> List<Change> calculateDiff(List<T> original, List<T> updated, boolean detectMoves) {
+            return Diff.calculatePatienceDiff(original, updated, detectMoves);
+        }
+    };
+
+    /**
+     * The combined size of a range without any unique anchors up to which the patience diff
+     * falls back on Myers, larger ranges are replaced outright
+     */
+    static final int PATIENCE_FALLBACK_LIMIT = 1 << 10;
+
+    /**
+     * The number of items, old and new combined, below which a parallel diff is not worth the
+     * cost of finding anchors and scheduling tasks
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+
     public static <T> List<Change> calculateDiff(final List<T> original, final List<T> updated, boolean detectMoves) {
+        return myersDiff(original, updated, detectMoves, equalsComparator(original, updated), null);
+    }
+
+    /**
+     * Calculates the diff between the lists, reusing the arrays held by the workspace rather
+     * than allocating new ones.
+     * @param original The original list
+     * @param updated The updated list
+     * @param detectMoves Indicates whether to apply move calculation to the diff
+     * @param workspace The workspace to calculate the diff within
+     * @param <T> The type of elements
+     * @return The changes transforming the original list into the updated list
+     */
+    public static <T> List<Change> calculateDiff(final List<T> original, final List<T> updated, boolean detectMoves, Workspace workspace) {
+        return myersDiff(original, updated, detectMoves, equalsComparator(original, updated), workspace);
+    }
+
+    /**
+     * Calculates the diff between the lists, giving up once the items have been compared more
+     * than the maximum number of times. This bounds the time taken by pathological inputs, for
+     * which a reload is cheaper than the diff would be.
+     * @param original The original list
+     * @param updated The updated list
+     * @param detectMoves Indicates whether to apply move calculation to the diff
+     * @param maxComparisons The number of item comparisons after which the diff is abandoned
+     * @param <T> The type of elements
+     * @return The changes transforming the original list into the updated list or null should
+     *         the diff have been abandoned
+     */
+    public static <T> List<Change> calculateDiff(final List<T> original, final List<T> updated, boolean detectMoves, long maxComparisons) {
+        return calculateDiff(original, updated, detectMoves, maxComparisons, null);
+    }
+
+    /**
+     * Calculates the diff between the lists within the workspace, giving up once the items have
+     * been compared more than the maximum number of times.
+     * @param original The original list
+     * @param updated The updated list
+     * @param detectMoves Indicates whether to apply move calculation to the diff
+     * @param maxComparisons The number of item comparisons after which the diff is abandoned
+     * @param workspace The workspace to calculate the diff within, or null to allocate anew
+     * @param <T> The type of elements
+     * @return The changes transforming the original list into the updated list or null should
+     *         the diff have been abandoned
+     */
+    public static <T> List<Change> calculateDiff(final List<T> original, final List<T> updated, boolean detectMoves, long maxComparisons, Workspace workspace) {
+        try {
+            return myersDiff(original, updated, detectMoves, boundedComparator(equalsComparator(original, updated), maxComparisons), workspace);
+        } catch (BudgetExceededException e) {
+            return null;
+        }
+    }
+
+    private static <T> List<Change> myersDiff(List<T> original, List<T> updated, boolean detectMoves,
+                                              EqualsComparator compare, Workspace workspace) {
+        final boolean useWorkspace = workspace != null && workspace.acquire();
+        try {
+            final int oldSize = original.size();
+            final int newSize = updated.size();
+            final int max = oldSize + newSize + Math.abs(oldSize - newSize);
+            final List<Snake> snakes;
+            // allocate forward and backward k-lines. K lines are diagonal lines in the matrix. (see the
+            // paper for details)
+            // These arrays lines keep the max reachable position for each k-line.
+            final int[] forward;
+            final int[] backward;
+            if (useWorkspace) {
+                workspace.ensureCapacity(max * 2);
+                snakes = workspace._snakes;
+                forward = workspace._forward;
+                backward = workspace._backward;
+            } else {
+                snakes = new ArrayList<>();
+                forward = new int[max * 2];
+                backward = new int[max * 2];
+            }
+            findSnakes(compare, new Range(0, oldSize, 0, newSize), forward, backward, max, snakes);
+            // sort snakes
+            Collections.sort(snakes, SNAKE_COMPARATOR);
+            return new DiffResult<>(original, updated, snakes, forward, backward, detectMoves, compare).toChangeList();
+        } finally {
+            if (useWorkspace) {
+                workspace.release();
+            }
+        }
+    }
+
+    /**
+     * Calculates the diff between the lists, splitting the work across the supplied pool. Items
+     * which occur exactly once in each list are matched up to partition both lists into segments
+     * which are diffed concurrently, the segments are then stitched back together before moves
+     * are detected across the lists as a whole. The resulting changes, when applied to the
+     * original list, produce the updated list exactly as the sequential diff does, although they
+     * need not be the same changes. Items must have a hash code consistent with their equality.
+     * @param original The original list
+     * @param updated The updated list
+     * @param detectMoves Indicates whether to apply move calculation to the diff
+     * @param pool The pool on which to diff the segments
+     * @param <T> The type of elements
+     * @return The changes transforming the original list into the updated list
+     */
+    public static <T> List<Change> calculateDiff(final List<T> original, final List<T> updated, boolean detectMoves, ForkJoinPool pool) {
+        final int oldSize = original.size();
+        final int newSize = updated.size();
+        if (oldSize + newSize < PARALLEL_THRESHOLD) {
+            return calculateDiff(original, updated, detectMoves);
+        }
+        final int[][] anchors = findAnchors(original, updated, new Range(0, oldSize, 0, newSize));
+        final int[] anchorsOld = anchors[0];
+        final int[] anchorsNew = anchors[1];
+        if (anchorsOld.length == 0) {
+            // nothing to partition on
+            return calculateDiff(original, updated, detectMoves);
+        }
+        final EqualsComparator compare = equalsComparator(original, updated);
+        final List<Snake> snakes = new ArrayList<>();
+        final List<Range> segments = new ArrayList<>();
+        int oldStart = 0;
+        int newStart = 0;
+        for (int i = 0; i <= anchorsOld.length; i++) {
+            final int oldEnd = i < anchorsOld.length ? anchorsOld[i] : oldSize;
+            final int newEnd = i < anchorsNew.length ? anchorsNew[i] : newSize;
+            if (oldEnd > oldStart && newEnd > newStart) {
+                segments.add(new Range(oldStart, oldEnd, newStart, newEnd));
+            }
+            if (i == anchorsOld.length) {
+                break;
+            }
+            // runs of consecutive anchors become a single snake
+            final Snake last = snakes.isEmpty() ? null : snakes.get(snakes.size() - 1);
+            if (last != null && last.x + last.size == oldEnd && last.y + last.size == newEnd) {
+                last.size++;
+            } else {
+                snakes.add(newSnake(oldEnd, newEnd, 1));
+            }
+            oldStart = oldEnd + 1;
+            newStart = newEnd + 1;
+        }
+        snakes.addAll(pool.invoke(new SegmentTask(compare, segments, 0, segments.size())));
+        Collections.sort(snakes, SNAKE_COMPARATOR);
+        return new DiffResult<>(original, updated, snakes, new int[oldSize], new int[newSize], detectMoves, compare).toChangeList();
+    }
 
-        EqualsComparator<Integer> compare = new EqualsComparator<Integer>() {
+    /**
+     * @param pool The pool on which to diff the segments
+     * @return A Myers diff which splits large lists across the pool
+     * @see #calculateDiff(List, List, boolean, ForkJoinPool)
+     */
+    public static DiffAlgorithm parallel(final ForkJoinPool pool) {
+        return new DiffAlgorithm() {
             @Override
-            public boolean isEqualTo(Integer indexOriginal, Integer indexUpdated) {
+            public <T> List<Change> calculateDiff(List<T> original, List<T> updated, boolean detectMoves) {
+                return Diff.calculateDiff(original, updated, detectMoves, pool);
+            }
+        };
+    }
+
+    /**
+     * Calculates the diff between the lists using the patience algorithm. Common leading and
+     * trailing items are matched first, then the items which occur exactly once in each of the
+     * remaining ranges are matched up and the ranges between them are diffed in turn. Ranges
+     * without any such items are diffed with Myers when small and replaced outright otherwise.
+     * Items must have a hash code consistent with their equality.
+     * @param original The original list
+     * @param updated The updated list
+     * @param detectMoves Indicates whether to apply move calculation to the diff
+     * @param <T> The type of elements
+     * @return The changes transforming the original list into the updated list
+     */
+    public static <T> List<Change> calculatePatienceDiff(final List<T> original, final List<T> updated, boolean detectMoves) {
+        return patienceDiff(original, updated, detectMoves, equalsComparator(original, updated));
+    }
+
+    /**
+     * Calculates the diff between the lists using the patience algorithm, giving up once the
+     * items have been compared more than the maximum number of times.
+     * @param original The original list
+     * @param updated The updated list
+     * @param detectMoves Indicates whether to apply move calculation to the diff
+     * @param maxComparisons The number of item comparisons after which the diff is abandoned
+     * @param <T> The type of elements
+     * @return The changes transforming the original list into the updated list or null should
+     *         the diff have been abandoned
+     * @see #calculatePatienceDiff(List, List, boolean)
+     */
+    public static <T> List<Change> calculatePatienceDiff(final List<T> original, final List<T> updated, boolean detectMoves, long maxComparisons) {
+        try {
+            return patienceDiff(original, updated, detectMoves, boundedComparator(equalsComparator(original, updated), maxComparisons));
+        } catch (BudgetExceededException e) {
+            return null;
+        }
+    }
+
+    private static <T> List<Change> patienceDiff(List<T> original, List<T> updated, boolean detectMoves, EqualsComparator compare) {
+        final int oldSize = original.size();
+        final int newSize = updated.size();
+        final List<Snake> snakes = new ArrayList<>();
+        final List<Range> stack = new ArrayList<>();
+        stack.add(new Range(0, oldSize, 0, newSize));
+        // only allocated should a range need to fall back on Myers
+        final int max = PATIENCE_FALLBACK_LIMIT * 2;
+        int[] forward = null;
+        int[] backward = null;
+        while (!stack.isEmpty()) {
+            final Range range = stack.remove(stack.size() - 1);
+            int prefix = 0;
+            while (range.oldListStart + prefix < range.oldListEnd && range.newListStart + prefix < range.newListEnd
+                    && compare.isEqualTo(range.oldListStart + prefix, range.newListStart + prefix)) {
+                prefix++;
+            }
+            if (prefix > 0) {
+                snakes.add(newSnake(range.oldListStart, range.newListStart, prefix));
+                range.oldListStart += prefix;
+                range.newListStart += prefix;
+            }
+            int suffix = 0;
+            while (range.oldListEnd - suffix > range.oldListStart && range.newListEnd - suffix > range.newListStart
+                    && compare.isEqualTo(range.oldListEnd - suffix - 1, range.newListEnd - suffix - 1)) {
+                suffix++;
+            }
+            if (suffix > 0) {
+                snakes.add(newSnake(range.oldListEnd - suffix, range.newListEnd - suffix, suffix));
+                range.oldListEnd -= suffix;
+                range.newListEnd -= suffix;
+            }
+            final int oldLength = range.oldListEnd - range.oldListStart;
+            final int newLength = range.newListEnd - range.newListStart;
+            if (oldLength == 0 || newLength == 0) {
+                continue;
+            }
+            final int[][] anchors = findAnchors(original, updated, range);
+            if (anchors[0].length == 0) {
+                if (oldLength + newLength <= PATIENCE_FALLBACK_LIMIT) {
+                    if (forward == null) {
+                        forward = new int[max * 2];
+                        backward = new int[max * 2];
+                    }
+                    findSnakes(compare, range, forward, backward, max, snakes);
+                }
+                continue;
+            }
+            int oldStart = range.oldListStart;
+            int newStart = range.newListStart;
+            for (int i = 0; i < anchors[0].length; i++) {
+                snakes.add(newSnake(anchors[0][i], anchors[1][i], 1));
+                stack.add(new Range(oldStart, anchors[0][i], newStart, anchors[1][i]));
+                oldStart = anchors[0][i] + 1;
+                newStart = anchors[1][i] + 1;
+            }
+            stack.add(new Range(oldStart, range.oldListEnd, newStart, range.newListEnd));
+        }
+        Collections.sort(snakes, SNAKE_COMPARATOR);
+        return new DiffResult<>(original, updated, snakes, new int[oldSize], new int[newSize], detectMoves, compare).toChangeList();
+    }
+
+    /**
+     * @param maxComparisons The number of item comparisons after which the diff is abandoned
+     * @return A Myers diff which gives up on pathological inputs, leaving the list to reload
+     * @see #calculateDiff(List, List, boolean, long)
+     */
+    public static DiffAlgorithm myers(final long maxComparisons) {
+        return new DiffAlgorithm() {
+            @Override
+            public <T> List<Change> calculateDiff(List<T> original, List<T> updated, boolean detectMoves) {
+                return Diff.calculateDiff(original, updated, detectMoves, maxComparisons);
+            }
+        };
+    }
+
+    /**
+     * @param workspace The workspace to calculate each diff within
+     * @return A Myers diff which reuses the arrays of the workspace from one diff to the next
+     * @see #calculateDiff(List, List, boolean, Workspace)
+     */
+    public static DiffAlgorithm myers(final Workspace workspace) {
+        return new DiffAlgorithm() {
+            @Override
+            public <T> List<Change> calculateDiff(List<T> original, List<T> updated, boolean detectMoves) {
+                return Diff.calculateDiff(original, updated, detectMoves, workspace);
+            }
+        };
+    }
+
+    /**
+     * @param maxComparisons The number of item comparisons after which the diff is abandoned
+     * @param workspace The workspace to calculate each diff within
+     * @return A Myers diff which reuses the arrays of the workspace and gives up on pathological
+     *         inputs, leaving the list to reload
+     * @see #calculateDiff(List, List, boolean, long, Workspace)
+     */
+    public static DiffAlgorithm myers(final long maxComparisons, final Workspace workspace) {
+        return new DiffAlgorithm() {
+            @Override
+            public <T> List<Change> calculateDiff(List<T> original, List<T> updated, boolean detectMoves) {
+                return Diff.calculateDiff(original, updated, detectMoves, maxComparisons, workspace);
+            }
+        };
+    }
+
+    /**
+     * @param maxComparisons The number of item comparisons after which the diff is abandoned
+     * @return A patience diff which gives up on pathological inputs, leaving the list to reload
+     * @see #calculatePatienceDiff(List, List, boolean, long)
+     */
+    public static DiffAlgorithm patience(final long maxComparisons) {
+        return new DiffAlgorithm() {
+            @Override
+            public <T> List<Change> calculateDiff(List<T> original, List<T> updated, boolean detectMoves) {
+                return Diff.calculatePatienceDiff(original, updated, detectMoves, maxComparisons);
+            }
+        };
+    }
+
+    private static Snake newSnake(int x, int y, int size) {
+        final Snake snake = new Snake();
+        snake.x = x;
+        snake.y = y;
+        snake.size = size;
+        return snake;
+    }
+
+    /**
+     * Compares the items of the lists by equality, primitive lists are compared without boxing.
+     */
+    private static <T> EqualsComparator equalsComparator(final List<T> original, final List<T> updated) {
+        if (original instanceof LongList && updated instanceof LongList) {
+            final LongList originalLongs = (LongList) original;
+            final LongList updatedLongs = (LongList) updated;
+            return new EqualsComparator() {
+                @Override
+                public boolean isEqualTo(int indexOriginal, int indexUpdated) {
+                    return originalLongs.getLong(indexOriginal) == updatedLongs.getLong(indexUpdated);
+                }
+            };
+        }
+        if (original instanceof IntList && updated instanceof IntList) {
+            final IntList originalInts = (IntList) original;
+            final IntList updatedInts = (IntList) updated;
+            return new EqualsComparator() {
+                @Override
+                public boolean isEqualTo(int indexOriginal, int indexUpdated) {
+                    return originalInts.getInt(indexOriginal) == updatedInts.getInt(indexUpdated);
+                }
+            };
+        }
+        return new EqualsComparator() {
+            @Override
+            public boolean isEqualTo(int indexOriginal, int indexUpdated) {
                 T a = original.get(indexOriginal);
                 T b = updated.get(indexUpdated);
 
                 return a == b || (a != null && a.equals(b));
             }
         };
-        final int oldSize = original.size();
-        final int newSize = updated.size();
-        final List<Snake> snakes = new ArrayList<>();
+    }
+
+    /**
+     * Counts the comparisons made, unwinding the diff once there have been more than allowed.
+     * The comparisons made while detecting moves count towards the same budget.
+     */
+    private static EqualsComparator boundedComparator(final EqualsComparator compare, final long maxComparisons) {
+        return new EqualsComparator() {
+            private long _comparisons;
+
+            @Override
+            public boolean isEqualTo(int indexOriginal, int indexUpdated) {
+                if (++_comparisons > maxComparisons) {
+                    throw new BudgetExceededException();
+                }
+
+                return compare.isEqualTo(indexOriginal, indexUpdated);
+            }
+        };
+    }
+
+    private static class BudgetExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            // used purely to unwind the diff, the stack trace is never looked at
+            return this;
+        }
+    }
+
+    /**
+     * Finds every snake within the range, adding them to the output in no particular order. The
+     * forward and backward arrays must hold at least twice the k offset, which in turn must be
+     * at least the combined size of the range plus the difference of its sizes.
+     */
+    private static void findSnakes(EqualsComparator compare, Range initialRange, int[] forward,
+                                   int[] backward, int kOffset, List<Snake> snakes) {
         // instead of a recursive implementation, we keep our own stack to avoid potential stack
         // overflow exceptions
         final List<Range> stack = new ArrayList<>();
-        stack.add(new Range(0, oldSize, 0, newSize));
-        final int max = oldSize + newSize + Math.abs(oldSize - newSize);
-        // allocate forward and backward k-lines. K lines are diagonal lines in the matrix. (see the
-        // paper for details)
-        // These arrays lines keep the max reachable position for each k-line.
-        final int[] forward = new int[max * 2];
-        final int[] backward = new int[max * 2];
+        stack.add(initialRange);
         // We pool the ranges to avoid allocations for each recursive call.
         final List<Range> rangePool = new ArrayList<>();
         while (!stack.isEmpty()) {
             final Range range = stack.remove(stack.size() - 1);
-            final Snake snake = diffPartial(original, updated, compare, range.oldListStart, range.oldListEnd,
-                    range.newListStart, range.newListEnd, forward, backward, max);
+            final Snake snake = diffPartial(compare, range.oldListStart, range.oldListEnd,
+                    range.newListStart, range.newListEnd, forward, backward, kOffset);
             if (snake != null) {
                 if (snake.size > 0) {
                     snakes.add(snake);
@@ -108,12 +520,125 @@ public class Diff
                 rangePool.add(range);
             }
         }
-        // sort snakes
-        Collections.sort(snakes, SNAKE_COMPARATOR);
-        return new DiffResult<>(original, updated, snakes, forward, backward, detectMoves, compare).toChangeList();
     }
 
-    private static <T> Snake diffPartial(List<T> original, List<T> updated, EqualsComparator<Integer> compare, int startOld, int endOld,
+    /**
+     * Matches up the items which occur exactly once in each list within the range, keeping the
+     * largest set of matches which appear in the same order in both lists.
+     * @return The positions of the matches in the original list followed by their positions
+     *         in the updated list, both in ascending order
+     */
+    private static <T> int[][] findAnchors(List<T> original, List<T> updated, Range range) {
+        // counts in each list followed by the position within each list
+        final Map<T, int[]> occurrences = new HashMap<>();
+        for (int i = range.oldListStart; i < range.oldListEnd; i++) {
+            int[] occurrence = occurrences.get(original.get(i));
+            if (occurrence == null) {
+                occurrence = new int[] { 0, 0, i, -1 };
+                occurrences.put(original.get(i), occurrence);
+            }
+            occurrence[0]++;
+        }
+        for (int i = range.newListStart; i < range.newListEnd; i++) {
+            final int[] occurrence = occurrences.get(updated.get(i));
+            if (occurrence != null) {
+                occurrence[1]++;
+                occurrence[3] = i;
+            }
+        }
+        // the unique matches, in their original order
+        final int[] matchesOld = new int[range.oldListEnd - range.oldListStart];
+        final int[] matchesNew = new int[range.oldListEnd - range.oldListStart];
+        int matchCount = 0;
+        for (int i = range.oldListStart; i < range.oldListEnd; i++) {
+            final int[] occurrence = occurrences.get(original.get(i));
+            if (occurrence[0] == 1 && occurrence[1] == 1) {
+                matchesOld[matchCount] = i;
+                matchesNew[matchCount] = occurrence[3];
+                matchCount++;
+            }
+        }
+        // keep the longest run of matches which are increasing in the updated list as well
+        final int[] tails = new int[matchCount];
+        final int[] predecessors = new int[matchCount];
+        int length = 0;
+        for (int i = 0; i < matchCount; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final int mid = (low + high) >>> 1;
+                if (matchesNew[tails[mid]] < matchesNew[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            predecessors[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        final int[][] anchors = new int[][] { new int[length], new int[length] };
+        for (int i = length > 0 ? tails[length - 1] : -1, j = length - 1; i >= 0; i = predecessors[i], j--) {
+            anchors[0][j] = matchesOld[i];
+            anchors[1][j] = matchesNew[i];
+        }
+        return anchors;
+    }
+
+    /**
+     * Diffs a run of segments, splitting the run in half and forking whenever it covers more
+     * items than the parallel threshold.
+     */
+    private static class SegmentTask extends RecursiveTask<List<Snake>> {
+        private static final long serialVersionUID = 1L;
+
+        private final EqualsComparator _compare;
+        private final List<Range> _segments;
+        private final int _start;
+        private final int _end;
+
+        SegmentTask(EqualsComparator compare, List<Range> segments, int start, int end) {
+            _compare = compare;
+            _segments = segments;
+            _start = start;
+            _end = end;
+        }
+
+        @Override
+        protected List<Snake> compute() {
+            int totalSize = 0;
+            int max = 0;
+            for (int i = _start; i < _end; i++) {
+                final Range segment = _segments.get(i);
+                final int oldSize = segment.oldListEnd - segment.oldListStart;
+                final int newSize = segment.newListEnd - segment.newListStart;
+                totalSize += oldSize + newSize;
+                max = Math.max(max, oldSize + newSize + Math.abs(oldSize - newSize));
+            }
+            if (_end - _start > 1 && totalSize > PARALLEL_THRESHOLD) {
+                final int mid = (_start + _end) >>> 1;
+                final SegmentTask left = new SegmentTask(_compare, _segments, _start, mid);
+                final SegmentTask right = new SegmentTask(_compare, _segments, mid, _end);
+                left.fork();
+                final List<Snake> snakes = new ArrayList<>(right.compute());
+                snakes.addAll(left.join());
+                return snakes;
+            }
+            final List<Snake> snakes = new ArrayList<>();
+            final int[] forward = new int[max * 2];
+            final int[] backward = new int[max * 2];
+            for (int i = _start; i < _end; i++) {
+                final Range segment = _segments.get(i);
+                findSnakes(_compare, new Range(segment.oldListStart, segment.oldListEnd,
+                        segment.newListStart, segment.newListEnd), forward, backward, max, snakes);
+            }
+            return snakes;
+        }
+    }
+
+    private static Snake diffPartial(EqualsComparator compare, int startOld, int endOld,
                                      int startNew, int endNew, int[] forward, int[] backward, int kOffset) {
         final int oldSize = endOld - startOld;
         final int newSize = endNew - startNew;
@@ -140,6 +665,8 @@ public class Diff
                 }
                 // set y based on x
                 int y = x - k;
+                // the matching run starts after the step onto this k-line
+                final int startX = x;
                 // move diagonal as long as items match
                 while (x < oldSize && y < newSize &&
                         compare.isEqualTo(startOld + x, startNew + y)) {
@@ -149,10 +676,12 @@ public class Diff
                 forward[kOffset + k] = x;
                 if (checkInFwd && k >= delta - d + 1 && k <= delta + d - 1) {
                     if (forward[kOffset + k] >= backward[kOffset + k]) {
+                        // the paths overlap, the middle snake is the run of matches which was
+                        // just followed, the overlap itself need not consist of matches
                         Snake outSnake = new Snake();
-                        outSnake.x = backward[kOffset + k];
-                        outSnake.y = outSnake.x - k;
-                        outSnake.size = forward[kOffset + k] - backward[kOffset + k];
+                        outSnake.x = startX;
+                        outSnake.y = startX - k;
+                        outSnake.size = forward[kOffset + k] - startX;
                         outSnake.isRemove = removal;
                         outSnake.isReverse = false;
                         return outSnake;
@@ -174,6 +703,8 @@ public class Diff
                 }
                 // set y based on x
                 int y = x - backwardK;
+                // the matching run ends before the step onto this k-line
+                final int endX = x;
                 // move diagonal as long as items match
                 while (x > 0 && y > 0
                         && compare.isEqualTo(startOld + x - 1, startNew + y - 1)) {
@@ -186,8 +717,7 @@ public class Diff
                         Snake outSnake = new Snake();
                         outSnake.x = backward[kOffset + backwardK];
                         outSnake.y = outSnake.x - backwardK;
-                        outSnake.size =
-                                forward[kOffset + backwardK] - backward[kOffset + backwardK];
+                        outSnake.size = endX - backward[kOffset + backwardK];
                         outSnake.isRemove = removal;
                         outSnake.isReverse = true;
                         return outSnake;
@@ -200,6 +730,40 @@ public class Diff
                 + " diff calculation.");
     }
 
+    /**
+     * Holds the arrays used to calculate a diff so that they can be reused from one diff to the
+     * next rather than being allocated each time. The arrays grow to fit the largest lists seen.
+     * A workspace is used by one diff at a time, diffs started while it is in use allocate their
+     * own arrays instead.
+     */
+    public static final class Workspace {
+        private final AtomicBoolean _inUse = new AtomicBoolean();
+        private final List<Snake> _snakes = new ArrayList<>();
+        private int[] _forward = new int[0];
+        private int[] _backward = new int[0];
+
+        boolean acquire() {
+            return _inUse.compareAndSet(false, true);
+        }
+
+        void release() {
+            _snakes.clear();
+            _inUse.set(false);
+        }
+
+        void ensureCapacity(int length) {
+            if (_forward.length < length) {
+                final int capacity = Math.max(length, _forward.length + (_forward.length >> 1));
+                _forward = new int[capacity];
+                _backward = new int[capacity];
+            }
+        }
+
+        int capacity() {
+            return _forward.length;
+        }
+    }
+
     static class Snake {
         int x;
         int y;
@@ -256,14 +820,15 @@ public class Diff
          * @param detectMoves True if this DiffResult will try to detect moved items
          */
         DiffResult(List<T> original, List<T> updated, List<Snake> snakes, int[] oldItemStatuses,
-                   int[] newItemStatuses, boolean detectMoves, EqualsComparator<Integer> compare) {
+                   int[] newItemStatuses, boolean detectMoves, EqualsComparator compare) {
             _snakes = snakes;
             _oldItemStatuses = oldItemStatuses;
             _newItemStatuses = newItemStatuses;
-            Arrays.fill(_oldItemStatuses, 0);
-            Arrays.fill(_newItemStatuses, 0);
             _oldListSize = original.size();
             _newListSize = updated.size();
+            // the arrays may be larger than the lists, only the leading entries are used
+            Arrays.fill(_oldItemStatuses, 0, _oldListSize, 0);
+            Arrays.fill(_newItemStatuses, 0, _newListSize, 0);
             _detectMoves = detectMoves;
             addRootSnake();
             findMatchingItems(compare);
@@ -295,7 +860,7 @@ public class Diff
          * the statuses maps. DiffResult uses this pre-calculated information while dispatching
          * the updates (which is probably being called on the main thread).
          */
-        private void findMatchingItems(EqualsComparator<Integer> compare) {
+        private void findMatchingItems(EqualsComparator compare) {
             int posOld = _oldListSize;
             int posNew = _newListSize;
             // traverse the matrix from right bottom to 0,0.
@@ -327,13 +892,13 @@ public class Diff
                 posNew = snake.y;
             }
         }
-        private void findAddition(int x, int y, int snakeIndex, EqualsComparator<Integer> compare) {
+        private void findAddition(int x, int y, int snakeIndex, EqualsComparator compare) {
             if (_oldItemStatuses[x - 1] != 0) {
                 return; // already set by a latter item
             }
             findMatchingItem(x, y, snakeIndex, compare, false);
         }
-        private void findRemoval(int x, int y, int snakeIndex, EqualsComparator<Integer> compare) {
+        private void findRemoval(int x, int y, int snakeIndex, EqualsComparator compare) {
             if (_newItemStatuses[y - 1] != 0) {
                 return; // already set by a latter item
             }
@@ -350,7 +915,7 @@ public class Diff
          *
          * @return True if such item is found.
          */
-        private boolean findMatchingItem(final int x, final int y, final int snakeIndex, EqualsComparator<Integer> compare,
+        private boolean findMatchingItem(final int x, final int y, final int snakeIndex, EqualsComparator compare,
                                          final boolean removal) {
             final int itemPosition;
             int curX;
@@ -371,7 +936,8 @@ public class Diff
                 if (removal) {
                     // check removals for a match
                     for (int pos = curX - 1; pos >= endX; pos--) {
-                        if (compare.isEqualTo(pos, itemPosition)) {
+                        // skip removals already paired with another addition
+                        if (_oldItemStatuses[pos] == 0 && compare.isEqualTo(pos, itemPosition)) {
                             // found!
                             _newItemStatuses[itemPosition] = (pos << FLAG_OFFSET) | FLAG_IGNORE;
                             _oldItemStatuses[pos] = (itemPosition << FLAG_OFFSET) | FLAG_MOVED;
@@ -381,7 +947,8 @@ public class Diff
                 } else {
                     // check for additions for a match
                     for (int pos = curY - 1; pos >= endY; pos--) {
-                        if (compare.isEqualTo(itemPosition, pos)) {
+                        // skip additions already paired with another removal
+                        if (_newItemStatuses[pos] == 0 && compare.isEqualTo(itemPosition, pos)) {
                             // found
                             _oldItemStatuses[x - 1] = (pos << FLAG_OFFSET) | FLAG_IGNORE;
                             _newItemStatuses[pos] = ((x - 1) << FLAG_OFFSET) | FLAG_MOVED;
@@ -534,8 +1101,12 @@ public class Diff
         }
     }
 
-    private interface EqualsComparator<T>
+    /**
+     * Compares the item at an index of the original list with the item at an index of the
+     * updated list. The indexes are passed unboxed as the comparison is made in the inner loop.
+     */
+    private interface EqualsComparator
     {
-        boolean isEqualTo(T a, T b);
+        boolean isEqualTo(int indexOriginal, int indexUpdated);
     }
 }
\ No newline at end of file
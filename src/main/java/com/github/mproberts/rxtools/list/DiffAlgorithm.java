@@ -0,0 +1,21 @@
+package com.github.mproberts.rxtools.list;
+
+import java.util.List;
+
+/**
+ * Computes the changes which transform one list into another. The built-in algorithms are
+ * available on {@link Diff}. An algorithm may give up on a diff by returning null, in which
+ * case the list is reloaded instead.
+ */
+public interface DiffAlgorithm
+{
+    /**
+     * @param original The original list
+     * @param updated The updated list
+     * @param detectMoves Indicates whether to apply move calculation to the diff
+     * @param <T> The type of elements
+     * @return The changes which, when applied to the original list, produce the updated list,
+     *         or null should the diff have been abandoned
+     */
+    <T> List<Change> calculateDiff(List<T> original, List<T> updated, boolean detectMoves);
+}
@@ -1,49 +1,87 @@
 package com.github.mproberts.rxtools.list;
 
 import io.reactivex.*;
+import io.reactivex.functions.Action;
 import io.reactivex.functions.BiFunction;
 import io.reactivex.functions.Function;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 class DifferentialFlowableList<T> extends FlowableList<T>
 {
     private final Flowable<Update<T>> _diffTransform;
-    private List<T> _previousList;
-    private boolean _detectMoves;
+    private final AtomicReference<List<T>> _previousList = new AtomicReference<>();
+    private final boolean _detectMoves;
+    private final DiffAlgorithm _algorithm;
+    private final Action _onFallback;
+    private final AtomicLong _fallbackCount = new AtomicLong();
 
     private List<Change> computeDiff(final List<T> before, final List<T> after)
     {
-        return Diff.calculateDiff(before, after, _detectMoves);
+        return _algorithm.calculateDiff(before, after, _detectMoves);
     }
 
     DifferentialFlowableList(Flowable<List<T>> list, boolean detectMoves)
+    {
+        // each list diffs within its own workspace, reusing it from one emission to the next
+        this(list, detectMoves, Diff.myers(new Diff.Workspace()));
+    }
+
+    DifferentialFlowableList(Flowable<List<T>> list, boolean detectMoves, DiffAlgorithm algorithm)
+    {
+        this(list, detectMoves, algorithm, null);
+    }
+
+    DifferentialFlowableList(Flowable<List<T>> list, boolean detectMoves, DiffAlgorithm algorithm, Action onFallback)
     {
         _detectMoves = detectMoves;
+        _algorithm = algorithm;
+        _onFallback = onFallback;
         _diffTransform = list
                 .map(new Function<List<T>, Update<T>>() {
                     @Override
                     public Update<T> apply(List<T> ts) {
+                        // emitted as-is, only the state replayed to later subscribers is copied
                         return new Update<>(ts, Change.reloaded());
                     }
                 })
                 .scan(new BiFunction<Update<T>, Update<T>, Update<T>>() {
                     @Override
-                    public Update<T> apply(Update<T> previous, Update<T> next) {
+                    public Update<T> apply(Update<T> previous, Update<T> next) throws Exception {
                         if (previous == null) {
                             return next;
                         }
 
                         List<Change> changes = computeDiff(previous.list, next.list);
 
-                        _previousList = next.list;
+                        _previousList.set(next.list);
+
+                        if (changes == null) {
+                            // the diff was abandoned, reloading is cheaper
+                            _fallbackCount.incrementAndGet();
+
+                            if (_onFallback != null) {
+                                _onFallback.run();
+                            }
+
+                            return next;
+                        }
 
                         return new Update<>(next.list, changes);
                     }
                 });
     }
 
+    /**
+     * @return The number of updates which were emitted as a reload as the diff was abandoned
+     */
+    long getFallbackCount()
+    {
+        return _fallbackCount.get();
+    }
+
     @Override
     public Flowable<Update<T>> updates()
     {
@@ -51,8 +89,15 @@ class DifferentialFlowableList<T> extends FlowableList<T>
                 .startWith(Flowable.create(new FlowableOnSubscribe<Update<T>>() {
                     @Override
                     public void subscribe(FlowableEmitter<Update<T>> updateEmitter) throws Exception {
-                        if (_previousList != null) {
-                            Update<T> update = new Update<>(new ArrayList<>(_previousList), Change.reloaded());
+                        List<T> previousList = _previousList.get();
+
+                        if (previousList != null) {
+                            // snapshot the state once, subsequent subscribers share the same copy
+                            List<T> snapshot = ImmutableList.snapshotOf(previousList);
+
+                            _previousList.compareAndSet(previousList, snapshot);
+
+                            Update<T> update = new Update<T>(snapshot, Change.reloaded());
                             updateEmitter.onNext(update);
                         }
 
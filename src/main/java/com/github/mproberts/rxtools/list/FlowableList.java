@@ -4,6 +4,7 @@ import com.github.mproberts.rxtools.map.SubjectMap;
 import com.github.mproberts.rxtools.types.Optional;
 import io.reactivex.Flowable;
 import io.reactivex.Scheduler;
+import io.reactivex.functions.Action;
 import io.reactivex.functions.Consumer;
 import io.reactivex.functions.Function;
 import io.reactivex.functions.Function3;
@@ -99,6 +100,52 @@ public abstract class FlowableList<T>
         return new FlatMapFlowableList<>(list);
     }
 
+    /**
+     * Flattens a stream of lists, following only the most recently emitted list. Emitting a
+     * new list cancels the subscription to the previous one and the first state of the new
+     * list is emitted as the diff from the last emitted state rather than as a reload.
+     * @param list The stream of lists to follow
+     * @param <T> The type of elements
+     * @return A new FlowableList
+     */
+    public static <T> FlowableList<T> switchFlatten(Flowable<? extends FlowableList<T>> list)
+    {
+        return new SwitchFlattenFlowableList<>(list);
+    }
+
+    /**
+     * Flattens a stream of lists, following only the most recently emitted list. When switching
+     * to a new list, the diff from the last emitted state is computed on the supplied scheduler.
+     * Should the two lists combined hold more than the maximum diff size, the new list is
+     * emitted as a reload instead.
+     * @param list The stream of lists to follow
+     * @param scheduler The scheduler on which to compute the diff between lists
+     * @param maxDiffSize The combined size of the lists above which no diff is computed
+     * @param <T> The type of elements
+     * @return A new FlowableList
+     */
+    public static <T> FlowableList<T> switchFlatten(Flowable<? extends FlowableList<T>> list, Scheduler scheduler, int maxDiffSize)
+    {
+        return new SwitchFlattenFlowableList<>(list, scheduler, maxDiffSize);
+    }
+
+    /**
+     * Subscribes to the Flowable of each item in the list, emitting a list of the latest value of each item.
+     * Items which have not yet emitted a value are null. The subscriptions follow the items as they are inserted,
+     * removed and moved within the list and are disposed as the items are removed. A value emitted by an item is
+     * reported as the removal and insertion of its index, values emitted in a burst are coalesced into a single
+     * update emitted on the supplied scheduler. Each subscriber holds its own subscriptions to the items, use
+     * {@link #share()} to share them.
+     * @param list The list of Flowables to subscribe to
+     * @param scheduler The scheduler on which to emit the coalesced value changes
+     * @param <R> The type of elements
+     * @return A new FlowableList of the latest values
+     */
+    public static <R> FlowableList<R> combineLatest(FlowableList<? extends Flowable<R>> list, Scheduler scheduler)
+    {
+        return new CombineLatestFlowableList<>(list, scheduler);
+    }
+
     /**
      * Transforms an FlowableList containing VisibilityState items into an FlowableList
      * which includes in its emissions the changes in visibility status of the items within the
@@ -138,6 +185,36 @@ public abstract class FlowableList<T>
         return new DifferentialFlowableList<>(listStream, detectMoves);
     }
 
+    /**
+     * Observes a stream of type List and computes the diff between successive emissions using
+     * the supplied algorithm, such as {@link Diff#PATIENCE}.
+     * @param listStream The list to wrap
+     * @param detectMoves Indicates whether to apply move calculation to the diff
+     * @param algorithm The algorithm used to compute the diff
+     * @param <T> The type of elements
+     * @return A new FlowableList
+     */
+    public static <T> FlowableList<T> diff(Flowable<List<T>> listStream, boolean detectMoves, DiffAlgorithm algorithm)
+    {
+        return new DifferentialFlowableList<>(listStream, detectMoves, algorithm);
+    }
+
+    /**
+     * Observes a stream of type List and computes the diff between successive emissions using
+     * the supplied algorithm. Whenever the algorithm abandons a diff, such as once a bounded
+     * algorithm exceeds its budget, the update is emitted as a reload and the fallback is called.
+     * @param listStream The list to wrap
+     * @param detectMoves Indicates whether to apply move calculation to the diff
+     * @param algorithm The algorithm used to compute the diff
+     * @param onFallback Called each time an update falls back to a reload
+     * @param <T> The type of elements
+     * @return A new FlowableList
+     */
+    public static <T> FlowableList<T> diff(Flowable<List<T>> listStream, boolean detectMoves, DiffAlgorithm algorithm, Action onFallback)
+    {
+        return new DifferentialFlowableList<>(listStream, detectMoves, algorithm, onFallback);
+    }
+
     /**
      * Wraps the supplied list, calling the map method when the get method is called for a specific index.
      * @param transform A function transforming the source to the target type
@@ -158,20 +235,28 @@ public abstract class FlowableList<T>
     }
 
     /**
-     * See {@link #map(Function map)}.
+     * See {@link #map(Function map)}. The keys of a reload or of a set of insertions are resolved together through
+     * {@link SubjectMap#getAll}, each key is faulted once its observable is subscribed.
      * @param mapping A SubjectMap used to maps input keys onto observable values
      * @param <R> The type of the mapped value
      * @return A new FlowableList which has values mapped via the supplied SubjectMap
      */
     public <R> FlowableList<Flowable<R>> map(final SubjectMap<T, R> mapping)
     {
-        return map(new Function<T, Flowable<R>>() {
-            @Override
-            public Flowable<R> apply(T t)
-            {
-                return mapping.get(t);
-            }
-        });
+        return map(mapping, false);
+    }
+
+    /**
+     * See {@link #map(SubjectMap map)}. When faulting all keys, the unbound keys of a reload or of a set of insertions
+     * are faulted up front as a single batch, whether or not their observables are ever subscribed.
+     * @param mapping A SubjectMap used to maps input keys onto observable values
+     * @param isFaultingAll Whether every unbound key is faulted as soon as it appears in the list
+     * @param <R> The type of the mapped value
+     * @return A new FlowableList which has values mapped via the supplied SubjectMap
+     */
+    public <R> FlowableList<Flowable<R>> map(final SubjectMap<T, R> mapping, boolean isFaultingAll)
+    {
+        return new SubjectMapFlowableList<>(this, mapping, isFaultingAll);
     }
 
     /**
@@ -264,6 +349,50 @@ public abstract class FlowableList<T>
         });
     }
 
+    /**
+     * Calls the supplied prefetch method on the items surrounding a requested index, only forwarding the items
+     * which have not recently been requested. Requests made within the timespan are coalesced into a single call
+     * which is dispatched on the supplied scheduler instead of the thread calling get.
+     * @param beforeAmount The number of items to prefetch before the current index
+     * @param afterAmount The number of items to prefetch after the current index
+     * @param timespan The period of time over which prefetch requests are coalesced
+     * @param unit The unit of time which applies to the {@code timespan} argument
+     * @param scheduler The scheduler on which the prefetch method is called
+     * @param fetcher The prefetching method to run on each batch of newly requested items
+     * @return A new FlowableList which prefetches the surrounding items on a query
+     */
+    public FlowableList<T> prefetch(final int beforeAmount, final int afterAmount, long timespan, TimeUnit unit, Scheduler scheduler, final Consumer<Collection<T>> fetcher)
+    {
+        int capacity = PrefetchDispatcher.capacityFor(beforeAmount, afterAmount);
+
+        return prefetch(beforeAmount, afterAmount, new PrefetchDispatcher<>(capacity, timespan, unit, scheduler, fetcher));
+    }
+
+    /**
+     * Calls the supplied prefetch method on the items surrounding a requested index, adapting the prefetch distance
+     * to the way the list is being read. While successive get calls travel steadily in one direction, the distance
+     * in the direction of travel grows, up to the maximum amount, and the distance behind shrinks. Pausing, changing
+     * direction or jumping to a distant index returns to the base amounts.
+     * @param beforeAmount The base number of items to prefetch before the current index
+     * @param afterAmount The base number of items to prefetch after the current index
+     * @param maxAmount The maximum number of items to prefetch in the direction of travel
+     * @param scheduler The scheduler whose clock is used to detect pauses between get calls
+     * @param fetcher The prefetching method to run on each requested item
+     * @return A new FlowableList which prefetches the surrounding items on a query
+     */
+    public FlowableList<T> adaptivePrefetch(final int beforeAmount, final int afterAmount, final int maxAmount, final Scheduler scheduler, final Consumer<Collection<T>> fetcher)
+    {
+        final FlowableList<T> list = this;
+        final PrefetchDistance prefetchDistance = new AdaptivePrefetchDistance(beforeAmount, afterAmount, maxAmount, scheduler);
+
+        return new TransformFlowableList<>(list, new Function<List<T>, List<T>>() {
+            @Override
+            public List<T> apply(List<T> list) throws Exception {
+                return new PrefetchList<>(list, prefetchDistance, fetcher);
+            }
+        });
+    }
+
     /**
      * Wraps the supplied list with the ability to buffer update to the underlying list for the provided timespan
      * emitting a single changeset when the buffer period elapses
@@ -280,4 +409,97 @@ public abstract class FlowableList<T>
     {
         return new BufferedFlowableList<>(this, timespan, unit, scheduler);
     }
+
+    /**
+     * Wraps the supplied list with the ability to buffer update to the underlying list for the provided timespan
+     * emitting a single changeset when the buffer period elapses or when the maximum number of updates have been
+     * buffered, whichever comes first
+     * @param timespan
+     *            the period of time each buffer collects items before it is emitted and replaced with a new
+     *            buffer
+     * @param unit
+     *            the unit of time which applies to the {@code timespan} argument
+     * @param scheduler
+     *            the {@link Scheduler} to use when determining the end and start of a buffer
+     * @param maxCount
+     *            the maximum number of updates to buffer before emitting
+     * @return A new observable with the buffer window applied to all updates
+     */
+    public FlowableList<T> buffer(long timespan, TimeUnit unit, Scheduler scheduler, int maxCount)
+    {
+        return new BufferedFlowableList<>(this, timespan, unit, scheduler, maxCount);
+    }
+
+    /**
+     * See {@link #debounce(long, long, int, TimeUnit, Scheduler) debounce}.
+     * @param timeout
+     *            the quiet period after which buffered updates are emitted
+     * @param maxWait
+     *            the longest an update may be buffered before it is emitted
+     * @param unit
+     *            the unit of time which applies to the {@code timeout} and {@code maxWait} arguments
+     * @param scheduler
+     *            the {@link Scheduler} to use when timing the quiet period and maximum wait
+     * @return A new observable with the debounce applied to all updates
+     */
+    public FlowableList<T> debounce(long timeout, long maxWait, TimeUnit unit, Scheduler scheduler)
+    {
+        return debounce(timeout, maxWait, Integer.MAX_VALUE, unit, scheduler);
+    }
+
+    /**
+     * Wraps the supplied list such that an update arriving after the list has been quiet for the timeout is
+     * emitted immediately, while updates arriving in quick succession are buffered and emitted as a single
+     * changeset once the list is quiet again. A steady stream of updates is never delayed beyond the maximum wait
+     * and a burst is emitted early once the maximum number of updates has been buffered.
+     * @param timeout
+     *            the quiet period after which buffered updates are emitted
+     * @param maxWait
+     *            the longest an update may be buffered before it is emitted
+     * @param maxCount
+     *            the maximum number of updates to buffer before emitting
+     * @param unit
+     *            the unit of time which applies to the {@code timeout} and {@code maxWait} arguments
+     * @param scheduler
+     *            the {@link Scheduler} to use when timing the quiet period and maximum wait
+     * @return A new observable with the debounce applied to all updates
+     */
+    public FlowableList<T> debounce(long timeout, long maxWait, int maxCount, TimeUnit unit, Scheduler scheduler)
+    {
+        return new DebouncedFlowableList<>(this, timeout, maxWait, maxCount, unit, scheduler);
+    }
+
+    /**
+     * Shares a single subscription to the updates of this list among all subscribers. The underlying list is
+     * subscribed when the first subscriber arrives and unsubscribed when the last subscriber leaves, so any mapping
+     * or bookkeeping performed by this list runs once no matter how many subscribers there are. Subscribers which
+     * arrive while the subscription is active receive the latest state of the list as a reload.
+     * @return A new FlowableList which multicasts the updates of this list
+     */
+    public FlowableList<T> share()
+    {
+        return new SharedFlowableList<>(this);
+    }
+
+    /**
+     * See {@link #conflate(int) conflate}.
+     * @return A new FlowableList which conflates updates for subscribers which are not keeping up
+     */
+    public FlowableList<T> conflate()
+    {
+        return conflate(ConflatingFlowableList.DEFAULT_MAX_CHANGES);
+    }
+
+    /**
+     * Wraps the supplied list such that a subscriber which has not requested further updates does not
+     * accumulate a queue of updates. Pending updates are merged into a single update, holding only the latest
+     * list state, which is delivered once the subscriber requests more. Use with a small request size, such as
+     * {@code observeOn(scheduler, false, 1)}, to bound the memory held on behalf of slow subscribers.
+     * @param maxChanges The number of merged changes beyond which the update is replaced with a reload
+     * @return A new FlowableList which conflates updates for subscribers which are not keeping up
+     */
+    public FlowableList<T> conflate(int maxChanges)
+    {
+        return new ConflatingFlowableList<>(this, maxChanges);
+    }
 }
@@ -0,0 +1,351 @@
+package com.github.mproberts.rxtools.list;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable, array-backed list. Lists of this type are safe to share between updates and
+ * subscribers without copying since their contents can never change. Sub lists are views over
+ * the same backing array and the hash code is computed at most once.
+ * @param <T> The type of values contained in the list
+ */
+public final class ImmutableList<T> extends AbstractList<T> implements RandomAccess
+{
+    private static final ImmutableList<?> EMPTY = new ImmutableList<>(new Object[0], 0, 0);
+
+    /**
+     * A mutable list which hands its backing array over to an ImmutableList when built,
+     * allowing a snapshot to be produced without a final copy. The builder may not be
+     * modified once built.
+     * @param <T> The type of values contained in the list
+     */
+    static final class Builder<T> extends AbstractList<T> implements RandomAccess
+    {
+        private Object[] _elements;
+        private int _size;
+        private boolean _isBuilt;
+
+        Builder(Collection<? extends T> values)
+        {
+            Object[] elements = values.toArray();
+
+            if (elements.getClass() != Object[].class) {
+                elements = Arrays.copyOf(elements, elements.length, Object[].class);
+            }
+
+            _elements = elements;
+            _size = elements.length;
+        }
+
+        private void checkModifiable()
+        {
+            if (_isBuilt) {
+                throw new IllegalStateException("Builder has already been built");
+            }
+        }
+
+        private void checkIndex(int index, int size)
+        {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index)
+        {
+            checkIndex(index, _size);
+
+            return (T) _elements[index];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T set(int index, T element)
+        {
+            checkModifiable();
+            checkIndex(index, _size);
+
+            T previous = (T) _elements[index];
+
+            _elements[index] = element;
+
+            return previous;
+        }
+
+        @Override
+        public void add(int index, T element)
+        {
+            checkModifiable();
+            checkIndex(index, _size + 1);
+
+            if (_size == _elements.length) {
+                _elements = Arrays.copyOf(_elements, Math.max(8, _size + (_size >> 1)));
+            }
+
+            System.arraycopy(_elements, index, _elements, index + 1, _size - index);
+
+            _elements[index] = element;
+            ++_size;
+            ++modCount;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T remove(int index)
+        {
+            checkModifiable();
+            checkIndex(index, _size);
+
+            T removed = (T) _elements[index];
+
+            System.arraycopy(_elements, index + 1, _elements, index, _size - index - 1);
+
+            _elements[--_size] = null;
+            ++modCount;
+
+            return removed;
+        }
+
+        @Override
+        public int size()
+        {
+            return _size;
+        }
+
+        ImmutableList<T> build()
+        {
+            _isBuilt = true;
+
+            if (_size == 0) {
+                return empty();
+            }
+
+            return new ImmutableList<>(_elements, 0, _size);
+        }
+    }
+
+    private final Object[] _elements;
+    private final int _offset;
+    private final int _size;
+    private int _hashCode;
+
+    private ImmutableList(Object[] elements, int offset, int size)
+    {
+        _elements = elements;
+        _offset = offset;
+        _size = size;
+    }
+
+    /**
+     * @param <T> The type of elements
+     * @return An empty ImmutableList
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ImmutableList<T> empty()
+    {
+        return (ImmutableList<T>) EMPTY;
+    }
+
+    /**
+     * Creates an ImmutableList containing the values of the collection. Should the collection
+     * already be an ImmutableList it is returned as-is, without copying.
+     * @param values The values to copy
+     * @param <T> The type of elements
+     * @return An ImmutableList containing the values of the collection
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ImmutableList<T> copyOf(Collection<? extends T> values)
+    {
+        if (values instanceof ImmutableList) {
+            return (ImmutableList<T>) values;
+        }
+
+        if (values.isEmpty()) {
+            return empty();
+        }
+
+        Object[] elements = values.toArray();
+
+        return new ImmutableList<>(elements, 0, elements.length);
+    }
+
+    /**
+     * Produces an immutable snapshot of the list. Lists which are already immutable, including
+     * the primitive-backed lists, are returned as-is so that they keep their representation.
+     * @param list The list to snapshot
+     * @param <T> The type of values contained in the list
+     * @return An immutable list with the same contents
+     */
+    static <T> List<T> snapshotOf(List<T> list)
+    {
+        if (list instanceof LongList || list instanceof IntList) {
+            return list;
+        }
+
+        return copyOf(list);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index)
+    {
+        if (index < 0 || index >= _size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+        }
+
+        return (T) _elements[_offset + index];
+    }
+
+    @Override
+    public int size()
+    {
+        return _size;
+    }
+
+    @Override
+    public int indexOf(Object o)
+    {
+        for (int i = 0; i < _size; ++i) {
+            Object element = _elements[_offset + i];
+
+            if (o == null ? element == null : o.equals(element)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o)
+    {
+        for (int i = _size - 1; i >= 0; --i) {
+            Object element = _elements[_offset + i];
+
+            if (o == null ? element == null : o.equals(element)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public Object[] toArray()
+    {
+        return Arrays.copyOfRange(_elements, _offset, _offset + _size, Object[].class);
+    }
+
+    @Override
+    public List<T> subList(int fromIndex, int toIndex)
+    {
+        if (fromIndex < 0 || toIndex > _size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex + ", Size: " + _size);
+        }
+
+        if (fromIndex == 0 && toIndex == _size) {
+            return this;
+        }
+
+        return new ImmutableList<>(_elements, _offset + fromIndex, toIndex - fromIndex);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (obj == this) {
+            return true;
+        }
+
+        if (obj instanceof ImmutableList) {
+            ImmutableList<?> other = (ImmutableList<?>) obj;
+
+            if (other._size != _size) {
+                return false;
+            }
+
+            if (other._elements == _elements && other._offset == _offset) {
+                return true;
+            }
+
+            if (other._hashCode != 0 && _hashCode != 0 && other._hashCode != _hashCode) {
+                return false;
+            }
+        }
+
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = _hashCode;
+
+        if (hashCode == 0) {
+            hashCode = 1;
+
+            for (int i = 0; i < _size; ++i) {
+                Object element = _elements[_offset + i];
+
+                hashCode = 31 * hashCode + (element == null ? 0 : element.hashCode());
+            }
+
+            _hashCode = hashCode;
+        }
+
+        return hashCode;
+    }
+
+    @Override
+    public boolean add(T t)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean remove(Object o)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> c)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> c)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public void clear()
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+}
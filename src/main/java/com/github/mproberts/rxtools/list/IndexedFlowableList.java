@@ -8,15 +8,18 @@ import io.reactivex.FlowableOnSubscribe;
 import io.reactivex.functions.Function;
 import io.reactivex.functions.Function3;
 import io.reactivex.processors.PublishProcessor;
+import org.reactivestreams.Publisher;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 public class IndexedFlowableList<T, R> extends FlowableList<R>
 {
     private final FlowableList<T> _list;
     private final Function3<T, Flowable<Optional<T>>, Flowable<Optional<T>>, R> _transform;
+    private final Flowable<Update<R>> _sharedUpdates;
     private List<IndexHolder<T>> _indexList = new ArrayList<>();
 
     private static class IndexHolder<T>
@@ -234,10 +237,24 @@ public class IndexedFlowableList<T, R> extends FlowableList<R>
     {
         _list = list;
         _transform = transform;
+
+        // the index list is shared state, all subscribers must be fed from a single upstream
+        _sharedUpdates = new SharedFlowableList<>(Flowable.defer(new Callable<Publisher<Update<R>>>() {
+            @Override
+            public Publisher<Update<R>> call()
+            {
+                return indexedUpdates();
+            }
+        })).updates();
     }
 
     @Override
     public Flowable<Update<R>> updates()
+    {
+        return _sharedUpdates;
+    }
+
+    private Flowable<Update<R>> indexedUpdates()
     {
         return _list.updates().map(new Function<Update<T>, Update<R>>() {
             @Override
@@ -0,0 +1,232 @@
+package com.github.mproberts.rxtools.list;
+
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A FlowableList of ints, behaving much like SimpleFlowableList but storing its values in a
+ * primitive array. Each emitted list is a {@link IntList}, values are only boxed when read
+ * through the List interface and diffs between IntLists compare the values without boxing.
+ */
+public class IntFlowableList extends BaseFlowableList<Integer>
+{
+    private final Object _batchingLock = new Object();
+    private List<Function<IntList.Builder, List<Change>>> _batchedOperations;
+
+    private void applyOperation(final Function<IntList.Builder, List<Change>> operation)
+    {
+        synchronized (_batchingLock) {
+            if (_batchedOperations != null) {
+                _batchedOperations.add(operation);
+                return;
+            }
+        }
+
+        applyUpdate(new Function<List<Integer>, Update<Integer>>() {
+            @Override
+            public Update<Integer> apply(List<Integer> list) throws Exception
+            {
+                IntList.Builder builder = new IntList.Builder(list);
+                List<Change> changes = operation.apply(builder);
+
+                if (changes == null) {
+                    return null;
+                }
+
+                return new Update<Integer>(builder.build(), changes);
+            }
+        });
+    }
+
+    @Override
+    List<Integer> snapshot(List<Integer> list)
+    {
+        return IntList.copyOf(list);
+    }
+
+    /**
+     * Constructs a new, empty IntFlowableList
+     */
+    public IntFlowableList()
+    {
+        super(IntList.empty());
+    }
+
+    /**
+     * Constructs a new IntFlowableList starting from the predefined state
+     * @param initialState The initial state of the list
+     */
+    public IntFlowableList(int... initialState)
+    {
+        super(IntList.of(initialState));
+    }
+
+    /**
+     * Groups operations into a single emission. This reduces changes to a single change list
+     * as well a only emitting a single immutable list.
+     * @param changes An action to be called which will apply operations to the list
+     */
+    public void batch(final Consumer<IntFlowableList> changes)
+    {
+        final IntFlowableList target = this;
+
+        applyUpdate(new Function<List<Integer>, Update<Integer>>() {
+            @Override
+            public Update<Integer> apply(List<Integer> list) throws Exception
+            {
+                synchronized (_batchingLock) {
+                    _batchedOperations = new ArrayList<>();
+
+                    changes.accept(target);
+
+                    IntList.Builder builder = new IntList.Builder(list);
+                    List<Change> allChanges = new ArrayList<>();
+
+                    for (Function<IntList.Builder, List<Change>> operation : _batchedOperations) {
+                        List<Change> operationChanges = operation.apply(builder);
+
+                        if (operationChanges != null) {
+                            allChanges.addAll(operationChanges);
+                        }
+                    }
+
+                    _batchedOperations = null;
+
+                    return new Update<Integer>(builder.build(), allChanges);
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a value to the end of the list
+     * @param value The value to add
+     */
+    public void add(final int value)
+    {
+        applyOperation(new Function<IntList.Builder, List<Change>>() {
+            @Override
+            public List<Change> apply(IntList.Builder list)
+            {
+                int size = list.size();
+
+                list.add(size, value);
+
+                return Collections.singletonList(Change.inserted(size));
+            }
+        });
+    }
+
+    /**
+     * Adds a value at the specified position within the list
+     * @param index The position in the list at which to add the new element
+     * @param value The value to add
+     */
+    public void add(final int index, final int value)
+    {
+        applyOperation(new Function<IntList.Builder, List<Change>>() {
+            @Override
+            public List<Change> apply(IntList.Builder list)
+            {
+                list.add(index, value);
+
+                return Collections.singletonList(Change.inserted(index));
+            }
+        });
+    }
+
+    /**
+     * Adds all of the values to the end of the list
+     * @param values The values to add
+     */
+    public void addAll(final int... values)
+    {
+        final int[] copy = values.clone();
+
+        applyOperation(new Function<IntList.Builder, List<Change>>() {
+            @Override
+            public List<Change> apply(IntList.Builder list)
+            {
+                int size = list.size();
+                List<Change> changes = new ArrayList<>(copy.length);
+
+                for (int i = 0; i < copy.length; ++i) {
+                    list.add(size + i, copy[i]);
+                    changes.add(Change.inserted(size + i));
+                }
+
+                return changes;
+            }
+        });
+    }
+
+    /**
+     * Moves the value at the specified fromIndex to the specified toIndex
+     * @param fromIndex The index to move from
+     * @param toIndex The index to move to
+     */
+    public void move(final int fromIndex, final int toIndex)
+    {
+        applyOperation(new Function<IntList.Builder, List<Change>>() {
+            @Override
+            public List<Change> apply(IntList.Builder list)
+            {
+                int toPosition = Math.min(list.size() - 1, toIndex);
+
+                if (toPosition == fromIndex) {
+                    // do nothing
+                    return null;
+                }
+
+                list.add(toPosition, list.remove(fromIndex));
+
+                return Collections.singletonList(Change.moved(fromIndex, toPosition));
+            }
+        });
+    }
+
+    /**
+     * Removes the value at the index
+     * @param index The index of the value to remove
+     */
+    public void remove(final int index)
+    {
+        applyOperation(new Function<IntList.Builder, List<Change>>() {
+            @Override
+            public List<Change> apply(IntList.Builder list)
+            {
+                list.remove(index);
+
+                return Collections.singletonList(Change.removed(index));
+            }
+        });
+    }
+
+    /**
+     * Finds and removes the first occurrence of the value from the list. Named apart from
+     * {@link #remove(int)}, which treats its argument as an index.
+     * @param value The value to remove from the list
+     */
+    public void removeValue(final int value)
+    {
+        applyOperation(new Function<IntList.Builder, List<Change>>() {
+            @Override
+            public List<Change> apply(IntList.Builder list)
+            {
+                int index = list.indexOf(value);
+
+                if (index < 0) {
+                    return null;
+                }
+
+                list.remove(index);
+
+                return Collections.singletonList(Change.removed(index));
+            }
+        });
+    }
+}
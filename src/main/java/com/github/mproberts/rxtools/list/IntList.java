@@ -0,0 +1,360 @@
+package com.github.mproberts.rxtools.list;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of ints backed by a primitive array. The values are only boxed when read
+ * through the List interface, {@link #getInt(int)} and {@link #indexOf(int)} read them as-is.
+ * Sub lists are views over the same backing array and the hash code is computed at most once.
+ */
+public final class IntList extends AbstractList<Integer> implements RandomAccess
+{
+    private static final IntList EMPTY = new IntList(new int[0], 0, 0);
+
+    /**
+     * A mutable list of ints which hands its backing array over to a IntList when built,
+     * allowing a snapshot to be produced without a final copy. The builder may not be modified
+     * once built.
+     */
+    static final class Builder
+    {
+        private int[] _elements;
+        private int _size;
+        private boolean _isBuilt;
+
+        Builder(List<Integer> values)
+        {
+            if (values instanceof IntList) {
+                _elements = ((IntList) values).toIntArray();
+            }
+            else {
+                _elements = new int[values.size()];
+
+                for (int i = 0; i < _elements.length; ++i) {
+                    _elements[i] = values.get(i);
+                }
+            }
+
+            _size = _elements.length;
+        }
+
+        private void checkModifiable()
+        {
+            if (_isBuilt) {
+                throw new IllegalStateException("Builder has already been built");
+            }
+        }
+
+        private void checkIndex(int index, int size)
+        {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+            }
+        }
+
+        int size()
+        {
+            return _size;
+        }
+
+        int get(int index)
+        {
+            checkIndex(index, _size);
+
+            return _elements[index];
+        }
+
+        int indexOf(int value)
+        {
+            for (int i = 0; i < _size; ++i) {
+                if (_elements[i] == value) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        void add(int index, int value)
+        {
+            checkModifiable();
+            checkIndex(index, _size + 1);
+
+            if (_size == _elements.length) {
+                _elements = Arrays.copyOf(_elements, Math.max(8, _size + (_size >> 1)));
+            }
+
+            System.arraycopy(_elements, index, _elements, index + 1, _size - index);
+
+            _elements[index] = value;
+            ++_size;
+        }
+
+        int remove(int index)
+        {
+            checkModifiable();
+            checkIndex(index, _size);
+
+            int removed = _elements[index];
+
+            System.arraycopy(_elements, index + 1, _elements, index, _size - index - 1);
+            --_size;
+
+            return removed;
+        }
+
+        IntList build()
+        {
+            _isBuilt = true;
+
+            if (_size == 0) {
+                return EMPTY;
+            }
+
+            return new IntList(_elements, 0, _size);
+        }
+    }
+
+    private final int[] _elements;
+    private final int _offset;
+    private final int _size;
+    private int _hashCode;
+
+    private IntList(int[] elements, int offset, int size)
+    {
+        _elements = elements;
+        _offset = offset;
+        _size = size;
+    }
+
+    /**
+     * @return An empty IntList
+     */
+    public static IntList empty()
+    {
+        return EMPTY;
+    }
+
+    /**
+     * @param values The values to copy
+     * @return A IntList containing a copy of the values
+     */
+    public static IntList of(int... values)
+    {
+        if (values.length == 0) {
+            return EMPTY;
+        }
+
+        return new IntList(values.clone(), 0, values.length);
+    }
+
+    /**
+     * Creates a IntList containing the values of the collection. Should the collection already
+     * be a IntList it is returned as-is, without copying.
+     * @param values The values to copy
+     * @return A IntList containing the values of the collection
+     */
+    public static IntList copyOf(Collection<Integer> values)
+    {
+        if (values instanceof IntList) {
+            return (IntList) values;
+        }
+
+        if (values.isEmpty()) {
+            return EMPTY;
+        }
+
+        int[] elements = new int[values.size()];
+        int i = 0;
+
+        for (Integer value : values) {
+            elements[i++] = value;
+        }
+
+        return new IntList(elements, 0, elements.length);
+    }
+
+    /**
+     * @param index The index of the value to return
+     * @return The value at the index, without boxing
+     */
+    public int getInt(int index)
+    {
+        if (index < 0 || index >= _size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+        }
+
+        return _elements[_offset + index];
+    }
+
+    @Override
+    public Integer get(int index)
+    {
+        return getInt(index);
+    }
+
+    @Override
+    public int size()
+    {
+        return _size;
+    }
+
+    /**
+     * @param value The value to find
+     * @return The index of the first occurrence of the value or -1 if not present
+     */
+    public int indexOf(int value)
+    {
+        for (int i = 0; i < _size; ++i) {
+            if (_elements[_offset + i] == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int indexOf(Object o)
+    {
+        return o instanceof Integer ? indexOf(((Integer) o).intValue()) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o)
+    {
+        if (!(o instanceof Integer)) {
+            return -1;
+        }
+
+        int value = (Integer) o;
+
+        for (int i = _size - 1; i >= 0; --i) {
+            if (_elements[_offset + i] == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * @return A copy of the values of the list
+     */
+    public int[] toIntArray()
+    {
+        return Arrays.copyOfRange(_elements, _offset, _offset + _size);
+    }
+
+    @Override
+    public IntList subList(int fromIndex, int toIndex)
+    {
+        if (fromIndex < 0 || toIndex > _size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex + ", Size: " + _size);
+        }
+
+        if (fromIndex == 0 && toIndex == _size) {
+            return this;
+        }
+
+        return new IntList(_elements, _offset + fromIndex, toIndex - fromIndex);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (obj == this) {
+            return true;
+        }
+
+        if (obj instanceof IntList) {
+            IntList other = (IntList) obj;
+
+            if (other._size != _size) {
+                return false;
+            }
+
+            for (int i = 0; i < _size; ++i) {
+                if (_elements[_offset + i] != other._elements[other._offset + i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = _hashCode;
+
+        if (hashCode == 0) {
+            hashCode = 1;
+
+            for (int i = 0; i < _size; ++i) {
+                int value = _elements[_offset + i];
+
+                hashCode = 31 * hashCode + value;
+            }
+
+            _hashCode = hashCode;
+        }
+
+        return hashCode;
+    }
+
+    @Override
+    public boolean add(Integer value)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean remove(Object o)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Integer> c)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Integer> c)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public void clear()
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+}
@@ -0,0 +1,361 @@
+package com.github.mproberts.rxtools.list;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of longs backed by a primitive array. The values are only boxed when read
+ * through the List interface, {@link #getLong(int)} and {@link #indexOf(long)} read them as-is.
+ * Sub lists are views over the same backing array and the hash code is computed at most once.
+ */
+public final class LongList extends AbstractList<Long> implements RandomAccess
+{
+    private static final LongList EMPTY = new LongList(new long[0], 0, 0);
+
+    /**
+     * A mutable list of longs which hands its backing array over to a LongList when built,
+     * allowing a snapshot to be produced without a final copy. The builder may not be modified
+     * once built.
+     */
+    static final class Builder
+    {
+        private long[] _elements;
+        private int _size;
+        private boolean _isBuilt;
+
+        Builder(List<Long> values)
+        {
+            if (values instanceof LongList) {
+                _elements = ((LongList) values).toLongArray();
+            }
+            else {
+                _elements = new long[values.size()];
+
+                for (int i = 0; i < _elements.length; ++i) {
+                    _elements[i] = values.get(i);
+                }
+            }
+
+            _size = _elements.length;
+        }
+
+        private void checkModifiable()
+        {
+            if (_isBuilt) {
+                throw new IllegalStateException("Builder has already been built");
+            }
+        }
+
+        private void checkIndex(int index, int size)
+        {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+            }
+        }
+
+        int size()
+        {
+            return _size;
+        }
+
+        long get(int index)
+        {
+            checkIndex(index, _size);
+
+            return _elements[index];
+        }
+
+        int indexOf(long value)
+        {
+            for (int i = 0; i < _size; ++i) {
+                if (_elements[i] == value) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        void add(int index, long value)
+        {
+            checkModifiable();
+            checkIndex(index, _size + 1);
+
+            if (_size == _elements.length) {
+                _elements = Arrays.copyOf(_elements, Math.max(8, _size + (_size >> 1)));
+            }
+
+            System.arraycopy(_elements, index, _elements, index + 1, _size - index);
+
+            _elements[index] = value;
+            ++_size;
+        }
+
+        long remove(int index)
+        {
+            checkModifiable();
+            checkIndex(index, _size);
+
+            long removed = _elements[index];
+
+            System.arraycopy(_elements, index + 1, _elements, index, _size - index - 1);
+            --_size;
+
+            return removed;
+        }
+
+        LongList build()
+        {
+            _isBuilt = true;
+
+            if (_size == 0) {
+                return EMPTY;
+            }
+
+            return new LongList(_elements, 0, _size);
+        }
+    }
+
+    private final long[] _elements;
+    private final int _offset;
+    private final int _size;
+    private int _hashCode;
+
+    private LongList(long[] elements, int offset, int size)
+    {
+        _elements = elements;
+        _offset = offset;
+        _size = size;
+    }
+
+    /**
+     * @return An empty LongList
+     */
+    public static LongList empty()
+    {
+        return EMPTY;
+    }
+
+    /**
+     * @param values The values to copy
+     * @return A LongList containing a copy of the values
+     */
+    public static LongList of(long... values)
+    {
+        if (values.length == 0) {
+            return EMPTY;
+        }
+
+        return new LongList(values.clone(), 0, values.length);
+    }
+
+    /**
+     * Creates a LongList containing the values of the collection. Should the collection already
+     * be a LongList it is returned as-is, without copying.
+     * @param values The values to copy
+     * @return A LongList containing the values of the collection
+     */
+    public static LongList copyOf(Collection<Long> values)
+    {
+        if (values instanceof LongList) {
+            return (LongList) values;
+        }
+
+        if (values.isEmpty()) {
+            return EMPTY;
+        }
+
+        long[] elements = new long[values.size()];
+        int i = 0;
+
+        for (Long value : values) {
+            elements[i++] = value;
+        }
+
+        return new LongList(elements, 0, elements.length);
+    }
+
+    /**
+     * @param index The index of the value to return
+     * @return The value at the index, without boxing
+     */
+    public long getLong(int index)
+    {
+        if (index < 0 || index >= _size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + _size);
+        }
+
+        return _elements[_offset + index];
+    }
+
+    @Override
+    public Long get(int index)
+    {
+        return getLong(index);
+    }
+
+    @Override
+    public int size()
+    {
+        return _size;
+    }
+
+    /**
+     * @param value The value to find
+     * @return The index of the first occurrence of the value or -1 if not present
+     */
+    public int indexOf(long value)
+    {
+        for (int i = 0; i < _size; ++i) {
+            if (_elements[_offset + i] == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int indexOf(Object o)
+    {
+        return o instanceof Long ? indexOf(((Long) o).longValue()) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o)
+    {
+        if (!(o instanceof Long)) {
+            return -1;
+        }
+
+        long value = (Long) o;
+
+        for (int i = _size - 1; i >= 0; --i) {
+            if (_elements[_offset + i] == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * @return A copy of the values of the list
+     */
+    public long[] toLongArray()
+    {
+        return Arrays.copyOfRange(_elements, _offset, _offset + _size);
+    }
+
+    @Override
+    public LongList subList(int fromIndex, int toIndex)
+    {
+        if (fromIndex < 0 || toIndex > _size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex + ", Size: " + _size);
+        }
+
+        if (fromIndex == 0 && toIndex == _size) {
+            return this;
+        }
+
+        return new LongList(_elements, _offset + fromIndex, toIndex - fromIndex);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (obj == this) {
+            return true;
+        }
+
+        if (obj instanceof LongList) {
+            LongList other = (LongList) obj;
+
+            if (other._size != _size) {
+                return false;
+            }
+
+            for (int i = 0; i < _size; ++i) {
+                if (_elements[_offset + i] != other._elements[other._offset + i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        return super.equals(obj);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int hashCode = _hashCode;
+
+        if (hashCode == 0) {
+            hashCode = 1;
+
+            for (int i = 0; i < _size; ++i) {
+                long value = _elements[_offset + i];
+
+                // matches Long.hashCode, keeping equal lists of boxed values at the same hash
+                hashCode = 31 * hashCode + (int) (value ^ (value >>> 32));
+            }
+
+            _hashCode = hashCode;
+        }
+
+        return hashCode;
+    }
+
+    @Override
+    public boolean add(Long value)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean remove(Object o)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Long> c)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Long> c)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c)
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+
+    @Override
+    public void clear()
+    {
+        throw new UnsupportedOperationException("Not modifiable");
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.mproberts.rxtools.list;
+
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Consumer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sits between a PrefetchList and the user supplied prefetch method. Items which were recently
+ * requested are remembered so that overlapping prefetch windows only forward the items which
+ * are newly entering the window. Requests arriving within the coalescing window are grouped
+ * into a single call which is dispatched on the supplied scheduler rather than the caller.
+ * @param <T> The type of the prefetched items
+ */
+class PrefetchDispatcher<T> implements Consumer<Collection<T>>
+{
+    static final int MINIMUM_CAPACITY = 64;
+
+    private final Consumer<Collection<T>> _fetcher;
+    private final long _timespan;
+    private final TimeUnit _unit;
+    private final Scheduler _scheduler;
+
+    private final Object _lock = new Object();
+    private final LinkedHashMap<T, Boolean> _recentlyRequested;
+    private Set<T> _pending = new LinkedHashSet<>();
+    private boolean _flushScheduled;
+
+    private final Runnable _flush = new Runnable() {
+        @Override
+        public void run()
+        {
+            List<T> toFetch;
+
+            synchronized (_lock) {
+                toFetch = new ArrayList<>(_pending);
+
+                _pending = new LinkedHashSet<>();
+                _flushScheduled = false;
+            }
+
+            if (toFetch.isEmpty()) {
+                return;
+            }
+
+            try {
+                _fetcher.accept(toFetch);
+            }
+            catch (RuntimeException re) {
+                throw re;
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    };
+
+    PrefetchDispatcher(final int capacity, long timespan, TimeUnit unit, Scheduler scheduler, Consumer<Collection<T>> fetcher)
+    {
+        _fetcher = fetcher;
+        _timespan = timespan;
+        _unit = unit;
+        _scheduler = scheduler;
+
+        // access ordered so that items which keep appearing in the window are not evicted
+        _recentlyRequested = new LinkedHashMap<T, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<T, Boolean> eldest)
+            {
+                return size() > capacity;
+            }
+        };
+    }
+
+    static int capacityFor(int beforeAmount, int afterAmount)
+    {
+        return Math.max(MINIMUM_CAPACITY, (beforeAmount + afterAmount + 1) * 4);
+    }
+
+    @Override
+    public void accept(Collection<T> items)
+    {
+        boolean scheduleFlush = false;
+
+        synchronized (_lock) {
+            for (T item : items) {
+                if (_recentlyRequested.get(item) != null) {
+                    // already requested, the lookup refreshes its recency
+                    continue;
+                }
+
+                _recentlyRequested.put(item, Boolean.TRUE);
+                _pending.add(item);
+            }
+
+            if (!_pending.isEmpty() && !_flushScheduled) {
+                _flushScheduled = true;
+                scheduleFlush = true;
+            }
+        }
+
+        if (scheduleFlush) {
+            _scheduler.scheduleDirect(_flush, _timespan, _unit);
+        }
+    }
+}
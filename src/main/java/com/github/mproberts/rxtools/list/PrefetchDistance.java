@@ -0,0 +1,45 @@
+package com.github.mproberts.rxtools.list;
+
+/**
+ * Decides how many items on either side of a requested index a PrefetchList should prefetch.
+ * Implementations are notified of every access so that they may adjust the distances based
+ * on how the list is being read.
+ */
+abstract class PrefetchDistance
+{
+    static final class Counts
+    {
+        final int beforeCount;
+        final int afterCount;
+
+        Counts(int beforeCount, int afterCount)
+        {
+            this.beforeCount = beforeCount;
+            this.afterCount = afterCount;
+        }
+    }
+
+    static class FixedPrefetchDistance extends PrefetchDistance
+    {
+        private final Counts _counts;
+
+        FixedPrefetchDistance(int beforeCount, int afterCount)
+        {
+            _counts = new Counts(beforeCount, afterCount);
+        }
+
+        @Override
+        Counts onAccess(int index)
+        {
+            return _counts;
+        }
+    }
+
+    /**
+     * Records an access and returns the distances to prefetch around it, as a single step so
+     * that concurrent readers never see the distances computed for one another.
+     * @param index the index accessed, relative to the start of the whole list
+     * @return the number of items to prefetch on either side of the index
+     */
+    abstract Counts onAccess(int index);
+}
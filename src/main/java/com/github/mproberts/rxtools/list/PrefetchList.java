@@ -9,16 +9,26 @@ import java.util.List;
 class PrefetchList<T> extends TransformList<T, T>
 {
     private final Consumer<Collection<T>> _prefetchCallback;
-    private final int _prefetchBeforeCount;
-    private final int _prefetchAfterCount;
+    private final PrefetchDistance _prefetchDistance;
+    private final int _offset;
 
     PrefetchList(List<T> list, int prefetchBeforeCount, int prefetchAfterCount, Consumer<Collection<T>> prefetchCallback)
+    {
+        this(list, new PrefetchDistance.FixedPrefetchDistance(prefetchBeforeCount, prefetchAfterCount), prefetchCallback);
+    }
+
+    PrefetchList(List<T> list, PrefetchDistance prefetchDistance, Consumer<Collection<T>> prefetchCallback)
+    {
+        this(list, prefetchDistance, prefetchCallback, 0);
+    }
+
+    private PrefetchList(List<T> list, PrefetchDistance prefetchDistance, Consumer<Collection<T>> prefetchCallback, int offset)
     {
         super(list);
 
         _prefetchCallback = prefetchCallback;
-        _prefetchBeforeCount = prefetchBeforeCount;
-        _prefetchAfterCount = prefetchAfterCount;
+        _prefetchDistance = prefetchDistance;
+        _offset = offset;
     }
 
     @Override
@@ -27,13 +37,20 @@ class PrefetchList<T> extends TransformList<T, T>
         try {
             List<T> prefetchList = new ArrayList<>();
 
+            // sublists share the distance of the whole list, accesses are reported by their
+            // index in the whole list so that they are tracked as part of the same travel
+            PrefetchDistance.Counts counts = _prefetchDistance.onAccess(_offset + index);
+
+            int prefetchBeforeCount = counts.beforeCount;
+            int prefetchAfterCount = counts.afterCount;
+
             // before the index, in newest-first order
-            for (int i = index - 1, e = index - _prefetchBeforeCount - 1; i > e && i >= 0; --i) {
+            for (int i = index - 1, e = index - prefetchBeforeCount - 1; i > e && i >= 0; --i) {
                 prefetchList.add(getInternal(i));
             }
 
             // after the index, in oldest-first order
-            for (int i = index + 1, s = size(), e = index + _prefetchAfterCount + 1; i < s && i < e; ++i) {
+            for (int i = index + 1, s = size(), e = index + prefetchAfterCount + 1; i < s && i < e; ++i) {
                 prefetchList.add(getInternal(i));
             }
 
@@ -52,6 +69,6 @@ class PrefetchList<T> extends TransformList<T, T>
     @Override
     public List<T> subList(int fromIndex, int toIndex)
     {
-        return new PrefetchList<>(getList().subList(fromIndex, toIndex), _prefetchBeforeCount, _prefetchAfterCount, _prefetchCallback);
+        return new PrefetchList<>(getList().subList(fromIndex, toIndex), _prefetchDistance, _prefetchCallback, _offset + fromIndex);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.github.mproberts.rxtools.list;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import org.reactivestreams.Publisher;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Multicasts a single subscription to the underlying updates to any number of subscribers. The
+ * subscription is made when the first subscriber arrives and disposed when the last subscriber
+ * leaves. Subscribers arriving while the subscription is active immediately receive the latest
+ * state of the list as a reload.
+ * @param <T> The value type of the list
+ */
+class SharedFlowableList<T> extends FlowableList<T>
+{
+    private final Flowable<Update<T>> _sharedUpdates;
+
+    SharedFlowableList(final FlowableList<T> list)
+    {
+        this(Flowable.defer(new Callable<Publisher<Update<T>>>() {
+            @Override
+            public Publisher<Update<T>> call()
+            {
+                return list.updates();
+            }
+        }));
+    }
+
+    SharedFlowableList(Flowable<Update<T>> updates)
+    {
+        _sharedUpdates = updates.replay(1).refCount();
+    }
+
+    @Override
+    public Flowable<Update<T>> updates()
+    {
+        return Flowable.defer(new Callable<Publisher<Update<T>>>() {
+            @Override
+            public Publisher<Update<T>> call()
+            {
+                return _sharedUpdates.map(new Function<Update<T>, Update<T>>() {
+                    private boolean _isFirst = true;
+
+                    @Override
+                    public Update<T> apply(Update<T> update)
+                    {
+                        if (_isFirst) {
+                            _isFirst = false;
+
+                            // the replayed update carries changes from a state this subscriber never saw
+                            if (update.changes.size() != 1 || update.changes.get(0).type != Change.Type.Reloaded) {
+                                return new Update<>(update.list, Change.reloaded());
+                            }
+                        }
+
+                        return update;
+                    }
+                });
+            }
+        });
+    }
+}
@@ -5,7 +5,6 @@ import io.reactivex.functions.Function;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -31,9 +30,14 @@ public class SimpleFlowableList<T> extends BaseFlowableList<T>
             @Override
             public Update<T> apply(List<T> list) throws Exception
             {
-                list = new ArrayList<>(list);
+                ImmutableList.Builder<T> builder = new ImmutableList.Builder<>(list);
+                Update<T> update = operation.apply(builder);
 
-                return operation.apply(list);
+                if (update == null) {
+                    return null;
+                }
+
+                return new Update<>(builder.build(), update.changes);
             }
         });
     }
@@ -43,7 +47,7 @@ public class SimpleFlowableList<T> extends BaseFlowableList<T>
      */
     public SimpleFlowableList()
     {
-        super(Collections.<T>emptyList());
+        super(ImmutableList.<T>empty());
     }
 
     /**
@@ -52,7 +56,7 @@ public class SimpleFlowableList<T> extends BaseFlowableList<T>
      */
     public SimpleFlowableList(List<T> initialState)
     {
-        super(initialState);
+        super(ImmutableList.copyOf(initialState));
     }
 
     /**
@@ -75,19 +79,20 @@ public class SimpleFlowableList<T> extends BaseFlowableList<T>
 
                     changes.accept(target);
 
-                    List<T> resultList = new ArrayList<>(list);
+                    ImmutableList.Builder<T> builder = new ImmutableList.Builder<>(list);
                     List<Change> allChanges = new ArrayList<>();
 
                     for (Function<List<T>, Update<T>> operation : _batchedOperations) {
-                        Update<T> update = operation.apply(resultList);
+                        Update<T> update = operation.apply(builder);
 
-                        allChanges.addAll(update.changes);
-                        resultList = update.list;
+                        if (update != null) {
+                            allChanges.addAll(update.changes);
+                        }
                     }
 
                     _batchedOperations = null;
 
-                    return new Update<>(resultList, allChanges);
+                    return new Update<>(builder.build(), allChanges);
                 }
             }
         });
@@ -11,7 +11,7 @@ class SingletonFlowableList<T> extends FlowableList<T>
 
     public SingletonFlowableList(List<T> list)
     {
-        _justReloadObservable = Flowable.just(new Update<>(list, Change.reloaded()));
+        _justReloadObservable = Flowable.just(new Update<>(ImmutableList.copyOf(list), Change.reloaded()));
     }
 
     @Override
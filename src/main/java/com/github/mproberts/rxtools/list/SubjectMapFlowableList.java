@@ -0,0 +1,113 @@
+package com.github.mproberts.rxtools.list;
+
+import com.github.mproberts.rxtools.map.SubjectMap;
+import io.reactivex.Flowable;
+import io.reactivex.functions.Function;
+import org.reactivestreams.Publisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Maps each key of the underlying list onto its observable within a SubjectMap. Rather than
+ * looking up each key as it is read, the keys of a reload or of a set of insertions are
+ * resolved together through {@link SubjectMap#getAll}, taking the lock once. Unbound keys are
+ * faulted as their observables are subscribed, unless faulting all keys up front as a single
+ * batch. The resolved observables are held by the emitted lists.
+ * @param <T> The key type of the underlying list
+ * @param <R> The value type of the observables
+ */
+class SubjectMapFlowableList<T, R> extends FlowableList<Flowable<R>>
+{
+    private final FlowableList<T> _list;
+    private final SubjectMap<T, R> _mapping;
+    private final boolean _isFaultingAll;
+
+    SubjectMapFlowableList(FlowableList<T> list, SubjectMap<T, R> mapping, boolean isFaultingAll)
+    {
+        _list = list;
+        _mapping = mapping;
+        _isFaultingAll = isFaultingAll;
+    }
+
+    private Update<Flowable<R>> resolve(List<Flowable<R>> previous, Update<T> update)
+    {
+        boolean isReload = previous == null;
+
+        for (Change change : update.changes) {
+            if (change.type == Change.Type.Reloaded) {
+                isReload = true;
+            }
+        }
+
+        if (isReload) {
+            return new Update<>(ImmutableList.copyOf(_mapping.getAll(update.list, _isFaultingAll)), update.changes);
+        }
+
+        ImmutableList.Builder<Flowable<R>> builder = new ImmutableList.Builder<>(previous);
+
+        for (Change change : update.changes) {
+            switch (change.type) {
+                case Inserted:
+                    builder.add(change.to, null);
+                    break;
+                case Removed:
+                    builder.remove(change.from);
+                    break;
+                case Moved:
+                    builder.add(change.to, builder.remove(change.from));
+                    break;
+            }
+        }
+
+        if (builder.size() != update.list.size()) {
+            // the changes do not describe the update, resolve the whole list again
+            return new Update<>(ImmutableList.copyOf(_mapping.getAll(update.list, _isFaultingAll)), Change.reloaded());
+        }
+
+        List<Integer> insertedIndexes = new ArrayList<>();
+        List<T> insertedKeys = new ArrayList<>();
+
+        for (int i = 0; i < builder.size(); ++i) {
+            if (builder.get(i) == null) {
+                insertedIndexes.add(i);
+                insertedKeys.add(update.list.get(i));
+            }
+        }
+
+        if (!insertedKeys.isEmpty()) {
+            List<Flowable<R>> inserted = _mapping.getAll(insertedKeys, _isFaultingAll);
+
+            for (int i = 0; i < inserted.size(); ++i) {
+                builder.set(insertedIndexes.get(i), inserted.get(i));
+            }
+        }
+
+        return new Update<>(builder.build(), update.changes);
+    }
+
+    @Override
+    public Flowable<Update<Flowable<R>>> updates()
+    {
+        return Flowable.defer(new Callable<Publisher<Update<Flowable<R>>>>() {
+            @Override
+            public Publisher<Update<Flowable<R>>> call()
+            {
+                return _list.updates().map(new Function<Update<T>, Update<Flowable<R>>>() {
+                    private List<Flowable<R>> _previous;
+
+                    @Override
+                    public Update<Flowable<R>> apply(Update<T> update)
+                    {
+                        Update<Flowable<R>> resolved = resolve(_previous, update);
+
+                        _previous = resolved.list;
+
+                        return resolved;
+                    }
+                });
+            }
+        });
+    }
+}
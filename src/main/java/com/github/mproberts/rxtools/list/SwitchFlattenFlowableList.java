@@ -0,0 +1,145 @@
+package com.github.mproberts.rxtools.list;
+
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+import org.reactivestreams.Publisher;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Follows only the most recently emitted list. When a new list arrives the subscription to the
+ * previous list is cancelled and the first state of the new list is expressed as the diff from
+ * the last state which was emitted, rather than as a reload. Should the lists combined be larger
+ * than the maximum diff size, the reload is passed along instead.
+ *
+ * When a scheduler is supplied the diff is computed on it, later updates from the same list are
+ * held back until the diff has been emitted.
+ * @param <T> The value type of the list
+ */
+class SwitchFlattenFlowableList<T> extends FlowableList<T>
+{
+    private final Flowable<? extends FlowableList<T>> _list;
+    private final Scheduler _scheduler;
+    private final int _maxDiffSize;
+
+    SwitchFlattenFlowableList(Flowable<? extends FlowableList<T>> list)
+    {
+        this(list, null, Integer.MAX_VALUE);
+    }
+
+    SwitchFlattenFlowableList(Flowable<? extends FlowableList<T>> list, Scheduler scheduler, int maxDiffSize)
+    {
+        _list = list;
+        _scheduler = scheduler;
+        _maxDiffSize = maxDiffSize;
+    }
+
+    static <T> Update<T> diffFrom(List<T> previous, Update<T> update, int maxDiffSize)
+    {
+        if (previous == null) {
+            return update;
+        }
+
+        if ((long) previous.size() + update.list.size() > maxDiffSize) {
+            return new Update<>(update.list, Change.reloaded());
+        }
+
+        return new Update<>(update.list, Diff.calculateDiff(previous, update.list, true));
+    }
+
+    private Flowable<Update<T>> diffFirst(final AtomicReference<List<T>> lastList, Flowable<Update<T>> updates)
+    {
+        if (_scheduler == null) {
+            return updates.map(new Function<Update<T>, Update<T>>() {
+                private boolean _isFirst = true;
+
+                @Override
+                public Update<T> apply(Update<T> update)
+                {
+                    if (_isFirst) {
+                        _isFirst = false;
+
+                        return diffFrom(lastList.get(), update, _maxDiffSize);
+                    }
+
+                    return update;
+                }
+            });
+        }
+
+        return updates.concatMap(new Function<Update<T>, Publisher<Update<T>>>() {
+            private boolean _isFirst = true;
+
+            @Override
+            public Publisher<Update<T>> apply(final Update<T> update)
+            {
+                if (!_isFirst) {
+                    return Flowable.just(update);
+                }
+
+                _isFirst = false;
+
+                return Flowable
+                        .fromCallable(new Callable<Update<T>>() {
+                            @Override
+                            public Update<T> call()
+                            {
+                                return diffFrom(lastList.get(), update, _maxDiffSize);
+                            }
+                        })
+                        .subscribeOn(_scheduler);
+            }
+        });
+    }
+
+    @Override
+    public Flowable<Update<T>> updates()
+    {
+        return Flowable.defer(new Callable<Publisher<Update<T>>>() {
+            @Override
+            public Publisher<Update<T>> call() throws Exception
+            {
+                // the last state sent to this subscriber, shared across each of the inner lists
+                final AtomicReference<List<T>> lastList = new AtomicReference<>();
+
+                return _list
+                        .switchMap(new Function<FlowableList<T>, Publisher<Update<T>>>() {
+                            @Override
+                            public Publisher<Update<T>> apply(FlowableList<T> flowableList)
+                            {
+                                return diffFirst(lastList, flowableList.updates())
+                                        .filter(new Predicate<Update<T>>() {
+                                            private boolean _isFirst = true;
+
+                                            @Override
+                                            public boolean test(Update<T> update)
+                                            {
+                                                // the first state of each list is always sent,
+                                                // even when it matches the last state
+                                                if (_isFirst) {
+                                                    _isFirst = false;
+
+                                                    return true;
+                                                }
+
+                                                return !update.changes.isEmpty();
+                                            }
+                                        });
+                            }
+                        })
+                        .doOnNext(new Consumer<Update<T>>() {
+                            @Override
+                            public void accept(Update<T> update)
+                            {
+                                lastList.set(update.list);
+                            }
+                        });
+            }
+        });
+    }
+}
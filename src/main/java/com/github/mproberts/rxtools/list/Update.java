@@ -13,7 +13,10 @@ import java.util.List;
  * L0 + C1 + C2 + C3 = L, where L0 is the previous update emitted from the
  * list and C1, ... are the changes contained within the update.
  *
- * The list contained within the update is immutable. A new list will be sent with
+ * The list contained within the update is immutable. Lists which hold their own state
+ * emit an {@link ImmutableList}, which supports constant time random access and may be
+ * retained without copying, while derived lists such as transformed or concatenated lists
+ * emit lazily evaluated, unmodifiable views over those snapshots. A new list will be sent with
  * every update, this should be taken into consideration when using observable lists
  * as you may wish to use an ID as the value of your list and map the value using a
  * repository of some kind. A {@link SubjectMap} is a
@@ -96,11 +96,11 @@ class VisibilityStateFlowableList<T> extends BaseFlowableList<T>
                                     applyUpdate(new Function<List<T>, Update<T>>() {
                                         @Override
                                         public Update<T> apply(List<T> currentList) {
-                                            ArrayList<T> listToUpdate = new ArrayList<>(currentList);
+                                            ImmutableList.Builder<T> listToUpdate = new ImmutableList.Builder<>(currentList);
 
                                             listToUpdate.add(change.to, listToUpdate.remove(change.from));
 
-                                            return new Update<>(listToUpdate, Change.moved(j, jj));
+                                            return new Update<>(listToUpdate.build(), Change.moved(j, jj));
                                         }
                                     });
                                 }
@@ -188,13 +188,13 @@ class VisibilityStateFlowableList<T> extends BaseFlowableList<T>
             applyUpdate(new Function<List<T>, Update<T>>() {
                 @Override
                 public Update<T> apply(List<T> currentList) {
-                    ArrayList<T> listToUpdate;
+                    ImmutableList.Builder<T> listToUpdate;
 
                     if (currentList == null) {
-                        listToUpdate = new ArrayList<>();
+                        listToUpdate = new ImmutableList.Builder<>(ImmutableList.<T>empty());
                     }
                     else {
-                        listToUpdate = new ArrayList<>(currentList);
+                        listToUpdate = new ImmutableList.Builder<>(currentList);
                     }
 
                     int index = _currentIndex.get();
@@ -206,13 +206,13 @@ class VisibilityStateFlowableList<T> extends BaseFlowableList<T>
                         listToUpdate.add(index, _insertedItem.get());
 
                         j = virtualIndex + 1;
-                        update = new Update<>(listToUpdate, Change.inserted(index));
+                        update = new Update<T>(listToUpdate.build(), Change.inserted(index));
                     }
                     else {
                         listToUpdate.remove(virtualIndex);
 
                         j = virtualIndex;
-                        update = new Update<>(listToUpdate, Change.removed(virtualIndex));
+                        update = new Update<T>(listToUpdate.build(), Change.removed(virtualIndex));
                     }
 
                     for (int i = index + 1, length = _listVisibility.size(); i < length; ++i) {
@@ -0,0 +1,579 @@
+package com.github.mproberts.rxtools.map;
+
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableEmitter;
+import io.reactivex.FlowableOnSubscribe;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+import io.reactivex.processors.BehaviorProcessor;
+import org.reactivestreams.Processor;
+import org.reactivestreams.Subscription;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A SubjectMap keyed by longs. Rather than spreading each key across several maps of boxed
+ * keys, every key is stored once in an open-addressing table of primitive keys pointing at a
+ * single record holding the weakly held observable, the weakly held source and the strong
+ * reference kept while subscribed.
+ *
+ * The lifecycle of the observables matches that of SubjectMap, records whose observables have
+ * been collected are dropped as the table grows.
+ *
+ * @param <V> value type for the emissions from the observables of the collection
+ */
+public class LongSubjectMap<V>
+{
+    private static final Action EMPTY_ACTION = new Action() {
+        @Override
+        public void run()
+        {
+        }
+    };
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Lock _writeLock;
+    private final Lock _readLock;
+
+    private final RecordTable<V> _records;
+
+    private final BehaviorProcessor<Long> _faults;
+
+    private static final class Record<V>
+    {
+        private WeakReference<Flowable<V>> _observable;
+        private WeakReference<Processor<V, V>> _source;
+        private Flowable<V> _retained;
+
+        private Flowable<V> observable()
+        {
+            return _observable == null ? null : _observable.get();
+        }
+
+        private Processor<V, V> source()
+        {
+            return _source == null ? null : _source.get();
+        }
+
+        private boolean isCollected()
+        {
+            return _retained == null && observable() == null;
+        }
+    }
+
+    /**
+     * An open-addressing hash table with linear probing from primitive keys to records. Slots
+     * are freed by shifting the following entries back, leaving no tombstones behind.
+     */
+    private static final class RecordTable<V>
+    {
+        private long[] _keys;
+        private Record<V>[] _values;
+        private int _size;
+
+        RecordTable(int capacity)
+        {
+            allocate(capacity);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void allocate(int capacity)
+        {
+            _keys = new long[capacity];
+            _values = (Record<V>[]) new Record<?>[capacity];
+            _size = 0;
+        }
+
+        private static int slot(long key, int mask)
+        {
+            long hash = key * 0x9E3779B97F4A7C15L;
+
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        private int indexOf(long key)
+        {
+            int mask = _keys.length - 1;
+
+            for (int i = slot(key, mask); _values[i] != null; i = (i + 1) & mask) {
+                if (_keys[i] == key) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        Record<V> get(long key)
+        {
+            int index = indexOf(key);
+
+            return index < 0 ? null : _values[index];
+        }
+
+        void put(long key, Record<V> record)
+        {
+            int index = indexOf(key);
+
+            if (index >= 0) {
+                _values[index] = record;
+                return;
+            }
+
+            if ((_size + 1) * 2 > _keys.length) {
+                rehash();
+            }
+
+            insert(key, record);
+        }
+
+        private void insert(long key, Record<V> record)
+        {
+            int mask = _keys.length - 1;
+            int i = slot(key, mask);
+
+            while (_values[i] != null) {
+                i = (i + 1) & mask;
+            }
+
+            _keys[i] = key;
+            _values[i] = record;
+            ++_size;
+        }
+
+        private void rehash()
+        {
+            long[] keys = _keys;
+            Record<V>[] values = _values;
+            int live = 0;
+
+            for (Record<V> record : values) {
+                if (record != null && !record.isCollected()) {
+                    ++live;
+                }
+            }
+
+            int capacity = INITIAL_CAPACITY;
+
+            // keep the table at most half full once the new key is added
+            while (capacity < (live + 1) * 2) {
+                capacity <<= 1;
+            }
+
+            if (capacity == keys.length && live == _size) {
+                capacity <<= 1;
+            }
+
+            allocate(capacity);
+
+            for (int i = 0; i < keys.length; ++i) {
+                if (values[i] != null && !values[i].isCollected()) {
+                    insert(keys[i], values[i]);
+                }
+            }
+        }
+
+        void remove(long key)
+        {
+            int hole = indexOf(key);
+
+            if (hole < 0) {
+                return;
+            }
+
+            int mask = _keys.length - 1;
+
+            for (int i = (hole + 1) & mask; _values[i] != null; i = (i + 1) & mask) {
+                int ideal = slot(_keys[i], mask);
+
+                // an entry may fill the hole only if the hole lies between its ideal slot and itself
+                boolean canMove = hole <= i
+                        ? ideal <= hole || ideal > i
+                        : ideal <= hole && ideal > i;
+
+                if (canMove) {
+                    _keys[hole] = _keys[i];
+                    _values[hole] = _values[i];
+                    hole = i;
+                }
+            }
+
+            _values[hole] = null;
+            --_size;
+        }
+
+        int size()
+        {
+            return _size;
+        }
+    }
+
+    private class OnSubscribeAttach implements FlowableOnSubscribe<V>
+    {
+        private final AtomicBoolean _isFirstFault = new AtomicBoolean(true);
+        private final long _key;
+        private volatile Processor<V, V> _valueObservable;
+
+        OnSubscribeAttach(long key)
+        {
+            _key = key;
+        }
+
+        @Override
+        public void subscribe(final FlowableEmitter<V> emitter) throws Exception
+        {
+            boolean isFirst = _isFirstFault.getAndSet(false);
+
+            if (isFirst) {
+                _valueObservable = attachSource(_key);
+
+                // since this is the first fetch of the observable, go grab the first emission
+                emitFault(_key);
+            }
+
+            // in case you raced into this block but someone else won the coin toss
+            // and is still setting up the value observable
+            while (_valueObservable == null) {
+                // just chill out and let the other thread do the setup
+                Thread.yield();
+            }
+
+            final AtomicReference<Subscription> disposableTarget = new AtomicReference<>();
+
+            _valueObservable.subscribe(new FlowableSubscriber<V>() {
+                @Override
+                public void onSubscribe(Subscription s)
+                {
+                    disposableTarget.set(s);
+
+                    s.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(V v) {
+                    emitter.onNext(v);
+                }
+
+                @Override
+                public void onError(Throwable e) {
+                    emitter.onError(e);
+                }
+
+                @Override
+                public void onComplete() {
+                    emitter.onComplete();
+                }
+            });
+
+            emitter.setDisposable(new Disposable() {
+                private final AtomicBoolean _isDisposed = new AtomicBoolean();
+
+                @Override
+                public void dispose() {
+                    if (_isDisposed.getAndSet(true)) {
+                        return;
+                    }
+
+                    disposableTarget.get().cancel();
+                    detachSource(_key);
+                }
+
+                @Override
+                public boolean isDisposed() {
+                    return _isDisposed.get();
+                }
+            });
+        }
+    }
+
+    /**
+     * Constructs a new, empty LongSubjectMap
+     */
+    public LongSubjectMap()
+    {
+        ReadWriteLock _readWriteLock = new ReentrantReadWriteLock();
+
+        _readLock = _readWriteLock.readLock();
+        _writeLock = _readWriteLock.writeLock();
+
+        _records = new RecordTable<>(INITIAL_CAPACITY);
+        _faults = BehaviorProcessor.create();
+    }
+
+    private Processor<V, V> attachSource(long key)
+    {
+        _writeLock.lock();
+        try {
+            Record<V> record = _records.get(key);
+
+            // if an observable is being attached then it must have been added to the table, unless
+            // the key was disconnected by an error in the meantime
+            if (record == null) {
+                record = new Record<>();
+
+                _records.put(key, record);
+            }
+
+            // if our source is being attached, we expect that all existing sources have been
+            // cleaned up properly. If not, this is a serious issue
+            assert(record.source() == null);
+
+            Processor<V, V> value = BehaviorProcessor.create();
+
+            // strongly retain the observable and add the subject so future next
+            // calls will be piped through the subject
+            record._source = new WeakReference<>(value);
+            record._retained = record.observable();
+
+            return value;
+        }
+        finally {
+            _writeLock.unlock();
+        }
+    }
+
+    private void detachSource(long key)
+    {
+        _writeLock.lock();
+        try {
+            Record<V> record = _records.get(key);
+
+            if (record != null) {
+                record._retained = null;
+            }
+        }
+        finally {
+            _writeLock.unlock();
+        }
+    }
+
+    private void emitUpdate(long key, Consumer<Processor<V, V>> updater, Action missHandler, boolean disconnect)
+    {
+        Processor<V, V> subject = null;
+
+        if (disconnect) {
+            _writeLock.lock();
+        }
+        else {
+            _readLock.lock();
+        }
+
+        try {
+            Record<V> record = _records.get(key);
+
+            // if we have a subject, we will emit the new value on the subject
+            if (record != null) {
+                subject = record.source();
+            }
+
+            if (disconnect) {
+                _records.remove(key);
+            }
+        }
+        finally {
+            if (disconnect) {
+                _writeLock.unlock();
+            }
+            else {
+                _readLock.unlock();
+            }
+        }
+
+        try {
+            if (subject != null) {
+                updater.accept(subject);
+            }
+            else {
+                missHandler.run();
+            }
+        }
+        catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void emitFault(long key)
+    {
+        _faults.onNext(key);
+    }
+
+    /**
+     * @return the number of keys currently held in the table, including those whose observables
+     * have been collected but have not yet been dropped
+     */
+    int size()
+    {
+        _readLock.lock();
+        try {
+            return _records.size();
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a stream of keys indicating which values need to be faulted in to satisfy
+     * the observables which have been requested through the system
+     *
+     * @return an observable stream of keys
+     */
+    public Flowable<Long> faults()
+    {
+        return _faults;
+    }
+
+    /**
+     * Emits the specified value from the observable associated with the specified key
+     * if there is an associated observable. If no observable has subscribed to the key,
+     * this operation is a noop. If no value is not emitted it will be faulted in later
+     * should another query request it
+     *
+     * @param key key with which the specified value is to be associated
+     * @param valueProvider the method to be called to create the new value in the case of a hit
+     * @param missHandler the callback for when a subscriber has not been bound
+     */
+    public void onNext(long key, final Callable<V> valueProvider, Action missHandler)
+    {
+        emitUpdate(key, new Consumer<Processor<V, V>>() {
+            @Override
+            public void accept(Processor<V, V> subject)
+            {
+                try {
+                    subject.onNext(valueProvider.call());
+                }
+                catch (Exception error) {
+                    subject.onError(error);
+                }
+            }
+        }, missHandler, false);
+    }
+
+    /**
+     * Emits the specified value from the observable associated with the specified key
+     * if there is an associated observable. If no observable has subscribed to the key,
+     * this operation is a noop. If no value is not emitted it will be faulted in later
+     * should another query request it
+     *
+     * @param key key with which the specified value is to be associated
+     * @param valueCreator the method to be called to create the new value in the case of a hit
+     */
+    public void onNext(long key, final Callable<V> valueCreator)
+    {
+        onNext(key, valueCreator, EMPTY_ACTION);
+    }
+
+    /**
+     * Emits the specified value from the observable associated with the specified key
+     * if there is an associated observable. If no observable has subscribed to the key,
+     * this operation is a noop. If no value is not emitted it will be faulted in later
+     * should another query request it
+     *
+     * @param key key with which the specified value is to be associated
+     * @param value value to be send to the specified observable
+     */
+    public void onNext(long key, final V value)
+    {
+        onNext(key, new Callable<V>() {
+            @Override
+            public V call() throws Exception
+            {
+                return value;
+            }
+        });
+    }
+
+    /**
+     * Emits the error from the observable associated with the specified key. After the
+     * error is emitted, the observable will be automatically unbound, subsequent calls
+     * to get will return a new observable and attempt to fault the value in
+     *
+     * @param key key with which the specified value is to be associated
+     * @param error exception to be sent to the specified observable
+     */
+    public void onError(long key, final Throwable error)
+    {
+        emitUpdate(key, new Consumer<Processor<V, V>>() {
+            @Override
+            public void accept(Processor<V, V> subject)
+            {
+                subject.onError(error);
+            }
+        }, EMPTY_ACTION, true);
+    }
+
+    /**
+     * Returns an observable associated with the specified key. The observable will
+     * request that a value be supplied when the observable is bound and automatically
+     * manage the lifecycle of the observable internally
+     *
+     * @param key the key whose associated observable is to be returned
+     * @return an observable which, when subscribed, will be bound to the specified key
+     * and will receive all emissions and errors for the specified key
+     */
+    public Flowable<V> get(long key)
+    {
+        _readLock.lock();
+
+        try {
+            Record<V> record = _records.get(key);
+            Flowable<V> observable = record == null ? null : record.observable();
+
+            if (observable != null) {
+                // we already have a cached observable bound to this key
+                return observable;
+            }
+
+            // we do not have an observable for the key, escalate the lock
+            _readLock.unlock();
+            _writeLock.lock();
+
+            try {
+                // recheck the observable since we had to retake the lock
+                record = _records.get(key);
+
+                if (record != null) {
+                    observable = record.observable();
+
+                    if (observable != null) {
+                        // we found a hit this time around, return the hit
+                        return observable;
+                    }
+
+                    // the target of the weak source should have already been cleared by the
+                    // garbage collector since the source is retained by the cached observable
+                    record._source = null;
+                }
+                else {
+                    record = new Record<>();
+
+                    _records.put(key, record);
+                }
+
+                // no observable was found in the table, create a new binding
+                observable = Flowable.create(new OnSubscribeAttach(key), BackpressureStrategy.LATEST);
+
+                record._observable = new WeakReference<>(observable);
+            }
+            finally {
+                _readLock.lock();
+                _writeLock.unlock();
+            }
+
+            return observable;
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+}
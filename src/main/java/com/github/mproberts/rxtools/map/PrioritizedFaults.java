@@ -0,0 +1,261 @@
+package com.github.mproberts.rxtools.map;
+
+import io.reactivex.Flowable;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A queue of the outstanding faults of a SubjectMap, emitted highest priority first as they are
+ * requested. The most recently faulted keys have the highest priority and within a batch the
+ * earlier keys come first. Keys whose subscribers have all left by the time they would be
+ * emitted are dropped, as the queue grows such keys are also purged from it. Keys are only
+ * queued while the stream has a subscriber and the queue is cleared once the last one leaves.
+ * Each key is emitted to only one of the subscribers, allowing several workers to share the
+ * queue.
+ * @param <K> key type of the SubjectMap
+ */
+class PrioritizedFaults<K> extends Flowable<K>
+{
+    private static final int MIN_PURGE_SIZE = 64;
+
+    private final SubjectMap<K, ?> _subjectMap;
+
+    private final TreeMap<Long, K> _queue = new TreeMap<>();
+    private final Map<K, Long> _priorities = new HashMap<>();
+    private final List<FaultSubscription> _subscriptions = new ArrayList<>();
+
+    private int _purgeSize = MIN_PURGE_SIZE;
+    private long _nextPriority;
+    private boolean _isDraining;
+    private boolean _isMissed;
+
+    private class FaultSubscription implements Subscription
+    {
+        private final Subscriber<? super K> _subscriber;
+        private final AtomicLong _requested = new AtomicLong();
+
+        FaultSubscription(Subscriber<? super K> subscriber)
+        {
+            _subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n)
+        {
+            if (n <= 0) {
+                // a non-positive request violates rule 3.9, the subscription is ended with an error
+                cancel();
+                _subscriber.onError(new IllegalArgumentException("n > 0 required but it was " + n));
+
+                return;
+            }
+
+            while (true) {
+                long requested = _requested.get();
+                long updated = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+
+                if (_requested.compareAndSet(requested, updated)) {
+                    break;
+                }
+            }
+
+            drain();
+        }
+
+        @Override
+        public void cancel()
+        {
+            synchronized (PrioritizedFaults.this) {
+                _subscriptions.remove(this);
+
+                if (_subscriptions.isEmpty()) {
+                    // no one is left to service the queue
+                    _queue.clear();
+                    _priorities.clear();
+                    _purgeSize = MIN_PURGE_SIZE;
+                }
+            }
+        }
+    }
+
+    PrioritizedFaults(SubjectMap<K, ?> subjectMap)
+    {
+        _subjectMap = subjectMap;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super K> subscriber)
+    {
+        FaultSubscription subscription = new FaultSubscription(subscriber);
+
+        synchronized (this) {
+            _subscriptions.add(subscription);
+        }
+
+        subscriber.onSubscribe(subscription);
+    }
+
+    private void enqueue(K key, long priority)
+    {
+        Long previous = _priorities.put(key, priority);
+
+        if (previous != null) {
+            _queue.remove(previous);
+        }
+
+        _queue.put(priority, key);
+    }
+
+    /**
+     * Queues the keys ahead of all outstanding keys, keys which are already queued are moved up
+     * @param keys the keys faulted together, in descending priority
+     */
+    void offer(List<K> keys)
+    {
+        synchronized (this) {
+            if (_subscriptions.isEmpty()) {
+                return;
+            }
+
+            _nextPriority += keys.size();
+
+            for (int i = 0; i < keys.size(); ++i) {
+                enqueue(keys.get(i), _nextPriority - i);
+            }
+
+            if (_queue.size() > _purgeSize) {
+                purge();
+            }
+        }
+
+        drain();
+    }
+
+    /**
+     * Moves those of the keys which are still outstanding ahead of all others
+     * @param keys the keys to prioritize, in descending priority
+     */
+    void prioritize(Collection<K> keys)
+    {
+        synchronized (this) {
+            List<K> outstanding = new ArrayList<>(keys.size());
+
+            for (K key : keys) {
+                if (_priorities.containsKey(key)) {
+                    outstanding.add(key);
+                }
+            }
+
+            _nextPriority += outstanding.size();
+
+            for (int i = 0; i < outstanding.size(); ++i) {
+                enqueue(outstanding.get(i), _nextPriority - i);
+            }
+        }
+
+        drain();
+    }
+
+    /**
+     * @return the number of keys waiting to be emitted, including those which will be dropped
+     */
+    synchronized int size()
+    {
+        return _queue.size();
+    }
+
+    /**
+     * Drops the keys which are no longer wanted, the next purge happens once the queue has
+     * doubled in size so that the cost of purging is spread across the offers
+     */
+    private void purge()
+    {
+        Iterator<Map.Entry<Long, K>> iterator = _queue.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            K key = iterator.next().getValue();
+
+            if (!_subjectMap.isWanted(key)) {
+                iterator.remove();
+                _priorities.remove(key);
+            }
+        }
+
+        _purgeSize = Math.max(MIN_PURGE_SIZE, _queue.size() * 2);
+    }
+
+    private K poll()
+    {
+        while (!_queue.isEmpty()) {
+            K key = _queue.pollLastEntry().getValue();
+
+            _priorities.remove(key);
+
+            if (_subjectMap.isWanted(key)) {
+                return key;
+            }
+        }
+
+        return null;
+    }
+
+    private void drain()
+    {
+        synchronized (this) {
+            if (_isDraining) {
+                // the draining thread will pick up the change once it is done
+                _isMissed = true;
+                return;
+            }
+
+            _isDraining = true;
+        }
+
+        while (true) {
+            FaultSubscription target = null;
+            K key = null;
+
+            synchronized (this) {
+                for (FaultSubscription subscription : _subscriptions) {
+                    if (subscription._requested.get() > 0) {
+                        target = subscription;
+                        break;
+                    }
+                }
+
+                if (target != null) {
+                    key = poll();
+                }
+
+                if (key == null) {
+                    if (!_isMissed) {
+                        _isDraining = false;
+                        return;
+                    }
+
+                    _isMissed = false;
+                    continue;
+                }
+
+                // rotate the subscriptions so that the keys are spread among them
+                _subscriptions.remove(target);
+                _subscriptions.add(target);
+            }
+
+            if (target._requested.get() != Long.MAX_VALUE) {
+                target._requested.decrementAndGet();
+            }
+
+            target._subscriber.onNext(key);
+        }
+    }
+}
@@ -4,19 +4,34 @@ import io.reactivex.*;
 import io.reactivex.Flowable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Action;
-import io.reactivex.functions.Consumer;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
 import io.reactivex.processors.BehaviorProcessor;
+import io.reactivex.schedulers.Schedulers;
 import io.reactivex.subjects.BehaviorSubject;
 import io.reactivex.subjects.Subject;
 import io.reactivex.subscribers.DisposableSubscriber;
 import org.reactivestreams.Processor;
+import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -46,33 +61,76 @@ public class SubjectMap<K, V>
     private final Lock _readLock;
 
     private final HashMap<K, WeakReference<Flowable<V>>> _weakCache;
-    private final HashMap<K, WeakReference<Processor<V, V>>> _weakSources;
+    private final HashMap<K, SourceReference<V>> _weakSources;
 
     private final HashMap<K, Flowable<V>> _cache;
+    private final HashSet<K> _awaitingSubscription;
 
     private final BehaviorProcessor<K> _faults;
+    private final BehaviorProcessor<List<K>> _batchedFaults;
+
+    private SubjectMapLoader<K, V> _loader;
+    private SubjectMapFreshness<K, V> _freshness;
+    private SubjectMapAbsentKeys<K> _absentKeys;
+    private SubjectMapInvalidator<K> _invalidator;
+    private boolean _isSuppressingEqualValues;
+    private volatile PrioritizedFaults<K> _prioritizedFaults;
+
+    // values emitted without a version are never checked against the versions emitted before
+    private static final long UNVERSIONED = Long.MIN_VALUE;
+
+    private static final class SourceReference<V> extends WeakReference<Processor<V, V>>
+    {
+        // the state below is guarded by the reference, the values are emitted by only one
+        // writer at a time and outside of the monitor, later writers queue their values
+        private long _version = Long.MIN_VALUE;
+        private boolean _isEmitting;
+        private ArrayDeque<V> _queued;
+
+        SourceReference(Processor<V, V> source)
+        {
+            super(source);
+        }
+    }
 
     private class OnSubscribeAttach implements FlowableOnSubscribe<V>
     {
         private final AtomicBoolean _isFirstFault = new AtomicBoolean(true);
+        private final AtomicInteger _subscriberCount = new AtomicInteger();
         private final K _key;
-        private volatile Processor<V, V> _valueObservable;
+        private volatile BehaviorProcessor<V> _valueObservable;
 
         OnSubscribeAttach(K key)
         {
             _key = key;
         }
 
+        OnSubscribeAttach(K key, BehaviorProcessor<V> faultedSource)
+        {
+            _key = key;
+            _valueObservable = faultedSource;
+        }
+
         @Override
         public void subscribe(final FlowableEmitter<V> emitter) throws Exception
         {
             boolean isFirst = _isFirstFault.getAndSet(false);
+            boolean isOnlySubscriber = _subscriberCount.incrementAndGet() == 1;
 
             if (isFirst) {
-                _valueObservable = attachSource(_key);
+                if (_valueObservable != null) {
+                    // the source was created and faulted along with the observable, it only
+                    // needs to be retained now that it has a subscriber
+                    retainSource(_key, this);
+                }
+                else {
+                    _valueObservable = attachSource(_key);
 
-                // since this is the first fetch of the observable, go grab the first emission
-                emitFault(_key);
+                    // since this is the first fetch of the observable, go grab the first emission
+                    if (needsFault(_key)) {
+                        emitFault(_key);
+                    }
+                }
             }
 
             // in case you raced into this block but someone else won the coin toss
@@ -82,6 +140,16 @@ public class SubjectMap<K, V>
                 Thread.yield();
             }
 
+            if (!isFirst && isOnlySubscriber) {
+                // every previous subscriber has left, the observable must be retained again
+                retainSource(_key, this);
+
+                // a loader may have dropped the fault while there was no one to receive it
+                if (!_valueObservable.hasComplete() && needsRefault(_key, _valueObservable)) {
+                    emitFault(_key);
+                }
+            }
+
             final AtomicReference<Subscription> disposableTarget = new AtomicReference<>();
 
             _valueObservable.subscribe(new FlowableSubscriber<V>() {
@@ -114,8 +182,17 @@ public class SubjectMap<K, V>
 
                 @Override
                 public void dispose() {
+                    if (_isDisposed) {
+                        return;
+                    }
+
+                    _isDisposed = true;
+
                     disposableTarget.get().cancel();
-                    detachSource(_key);
+
+                    if (_subscriberCount.decrementAndGet() == 0) {
+                        detachSource(_key, OnSubscribeAttach.this);
+                    }
                 }
 
                 @Override
@@ -126,6 +203,215 @@ public class SubjectMap<K, V>
         }
     }
 
+    /**
+     * Builds a SubjectMap which may satisfy its own faults and track the age of its values.
+     *
+     * When given a loader, the map satisfies its faults through it. Keys which are already being
+     * loaded are not loaded again, at most the maximum number of batches are loaded at once and
+     * the faults arriving while the limit is reached are loaded together as the next batch. Keys
+     * whose subscribers have all left before their batch has started are not loaded and a batch
+     * which has started is cancelled once the subscribers of all of its keys have left. Keys
+     * missing from the loaded map are reported absent through {@link SubjectMap#onAbsent(Object)}.
+     * A key which was resubscribed after its subscribers had left, and which still has no value,
+     * is faulted again.
+     *
+     * @param <K> key type for the collection
+     * @param <V> value type for the emissions from the observables of the collection
+     */
+    public static class Builder<K, V>
+    {
+        private Function<Set<K>, Single<Map<K, V>>> _loader;
+        private int _maxInFlight = 1;
+        private Scheduler _scheduler = Schedulers.io();
+        private long _staleAfter = -1;
+        private long _refreshAhead;
+        private int _maxRetainedValues = 1024;
+        private long _absentTtl;
+        private boolean _isSuppressingEqualValues;
+        private int _maxInvalidatedKeys;
+        private long _invalidationPeriod;
+
+        /**
+         * @param loader the function called with each batch of keys to load, the values
+         *               emitted are passed on to the observables of their keys
+         * @return this builder
+         */
+        public Builder<K, V> loader(Function<Set<K>, Single<Map<K, V>>> loader)
+        {
+            _loader = loader;
+
+            return this;
+        }
+
+        /**
+         * @param maxInFlight the maximum number of batches to load at once, defaults to 1
+         * @return this builder
+         */
+        public Builder<K, V> maxInFlight(int maxInFlight)
+        {
+            if (maxInFlight < 1) {
+                throw new IllegalArgumentException("maxInFlight must be at least 1");
+            }
+
+            _maxInFlight = maxInFlight;
+
+            return this;
+        }
+
+        /**
+         * Keeps the most recent value of each key so that later observables for the key start
+         * from it. A value older than the stale age is still emitted but its key is faulted
+         * again to refresh it, a value younger than the stale age is not faulted at all.
+         *
+         * @param staleAfter the age after which a value is stale
+         * @param unit the unit of the age
+         * @return this builder
+         */
+        public Builder<K, V> staleAfter(long staleAfter, TimeUnit unit)
+        {
+            long staleAfterMillis = unit.toMillis(staleAfter);
+
+            if (_refreshAhead > 0 && _refreshAhead >= staleAfterMillis) {
+                throw new IllegalArgumentException("staleAfter must be longer than refreshAhead");
+            }
+
+            _staleAfter = staleAfterMillis;
+
+            return this;
+        }
+
+        /**
+         * Faults the keys which are bound shortly before their values go stale, the keys
+         * falling due together are faulted as a single batch. Requires a stale age, which the
+         * period must be shorter than, otherwise every value would be refreshed as it arrives.
+         *
+         * @param refreshAhead how long before going stale the value is refreshed
+         * @param unit the unit of the period
+         * @return this builder
+         */
+        public Builder<K, V> refreshAhead(long refreshAhead, TimeUnit unit)
+        {
+            if (_staleAfter < 0) {
+                throw new IllegalStateException("refreshAhead requires staleAfter to be set");
+            }
+
+            long refreshAheadMillis = unit.toMillis(refreshAhead);
+
+            if (refreshAheadMillis > 0 && refreshAheadMillis >= _staleAfter) {
+                throw new IllegalArgumentException("refreshAhead must be shorter than staleAfter");
+            }
+
+            _refreshAhead = refreshAheadMillis;
+
+            return this;
+        }
+
+        /**
+         * @param maxRetainedValues the maximum number of most recent values kept to start new
+         *                          observables from, the least recently used are discarded first,
+         *                          defaults to 1024
+         * @return this builder
+         */
+        public Builder<K, V> maxRetainedValues(int maxRetainedValues)
+        {
+            _maxRetainedValues = maxRetainedValues;
+
+            return this;
+        }
+
+        /**
+         * Remembers the keys reported absent so that observables requested for them within
+         * the period complete immediately rather than faulting the key again. A value written
+         * for the key ends the period early, whether or not the key is bound, so that the next
+         * observable requested for it is bound and faulted as usual.
+         *
+         * @param absentTtl how long a key is known to be absent, defaults to 0
+         * @param unit the unit of the period
+         * @return this builder
+         */
+        public Builder<K, V> absentTtl(long absentTtl, TimeUnit unit)
+        {
+            _absentTtl = unit.toMillis(absentTtl);
+
+            return this;
+        }
+
+        /**
+         * @param suppressEqualValues whether a value equal to the last value emitted for its
+         *                            key is dropped rather than emitted, defaults to false
+         * @return this builder
+         */
+        public Builder<K, V> suppressEqualValues(boolean suppressEqualValues)
+        {
+            _isSuppressingEqualValues = suppressEqualValues;
+
+            return this;
+        }
+
+        /**
+         * Limits the rate at which invalidated keys are faulted, the keys are faulted in batches
+         * of at most the maximum number of keys, one batch per period. Without a limit all of
+         * the invalidated keys are faulted at once.
+         *
+         * @param maxKeys the maximum number of keys faulted in each period
+         * @param period the period between batches
+         * @param unit the unit of the period
+         * @return this builder
+         */
+        public Builder<K, V> invalidationRate(int maxKeys, long period, TimeUnit unit)
+        {
+            if (maxKeys < 1) {
+                throw new IllegalArgumentException("maxKeys must be at least 1");
+            }
+
+            _maxInvalidatedKeys = maxKeys;
+            _invalidationPeriod = unit.toMillis(period);
+
+            return this;
+        }
+
+        /**
+         * @param scheduler the scheduler on which the loader is called and against which the
+         *                  age of values and of absent keys is measured, defaults to io
+         * @return this builder
+         */
+        public Builder<K, V> scheduler(Scheduler scheduler)
+        {
+            _scheduler = scheduler;
+
+            return this;
+        }
+
+        /**
+         * @return a new, empty SubjectMap
+         */
+        public SubjectMap<K, V> build()
+        {
+            SubjectMap<K, V> subjectMap = new SubjectMap<>();
+
+            subjectMap._isSuppressingEqualValues = _isSuppressingEqualValues;
+
+            if (_staleAfter >= 0) {
+                subjectMap._freshness = new SubjectMapFreshness<>(subjectMap, _staleAfter, _refreshAhead, TimeUnit.MILLISECONDS, _maxRetainedValues, _scheduler);
+            }
+
+            if (_maxInvalidatedKeys > 0) {
+                subjectMap._invalidator = new SubjectMapInvalidator<>(subjectMap, _maxInvalidatedKeys, _invalidationPeriod, TimeUnit.MILLISECONDS, _scheduler);
+            }
+
+            if (_absentTtl > 0) {
+                subjectMap._absentKeys = new SubjectMapAbsentKeys<>(_absentTtl, TimeUnit.MILLISECONDS, _scheduler);
+            }
+
+            if (_loader != null) {
+                subjectMap._loader = new SubjectMapLoader<>(subjectMap, _loader, _maxInFlight, _scheduler);
+                subjectMap._batchedFaults.subscribe(subjectMap._loader);
+            }
+
+            return subjectMap;
+        }
+    }
+
     /**
      * Constructs a new, empty SubjectMap
      */
@@ -139,11 +425,13 @@ public class SubjectMap<K, V>
         _weakCache = new HashMap<>();
         _cache = new HashMap<>();
         _faults = BehaviorProcessor.create();
+        _batchedFaults = BehaviorProcessor.create();
 
         _weakSources = new HashMap<>();
+        _awaitingSubscription = new HashSet<>();
     }
 
-    private Processor<V, V> attachSource(K key)
+    private BehaviorProcessor<V> attachSource(K key)
     {
         _writeLock.lock();
         try {
@@ -151,7 +439,7 @@ public class SubjectMap<K, V>
             // cleaned up properly. If not, this is a serious issue
             assert(!_weakSources.containsKey(key));
 
-            Processor<V, V> value = BehaviorProcessor.create();
+            BehaviorProcessor<V> value = createSource(key);
 
             WeakReference<Flowable<V>> weakConnector = _weakCache.get(key);
 
@@ -164,7 +452,7 @@ public class SubjectMap<K, V>
 
             // strongly retain the observable and add the subject so future next
             // calls will be piped through the subject
-            _weakSources.put(key, new WeakReference<>(value));
+            _weakSources.put(key, new SourceReference<V>(value));
             _cache.put(key, connector);
 
             return value;
@@ -174,24 +462,126 @@ public class SubjectMap<K, V>
         }
     }
 
-    private void detachSource(K key)
+    private BehaviorProcessor<V> createSource(K key)
+    {
+        BehaviorProcessor<V> source = BehaviorProcessor.create();
+
+        if (_freshness != null) {
+            SubjectMapFreshness.TimestampedValue<V> lastValue = _freshness.lastValue(key);
+
+            // start from the most recent value, even if it is stale
+            if (lastValue != null) {
+                source.onNext(lastValue.value);
+            }
+        }
+
+        return source;
+    }
+
+    private boolean isKnownAbsent(K key)
+    {
+        return _absentKeys != null && _absentKeys.contains(key);
+    }
+
+    private void clearAbsent(K key)
+    {
+        if (_absentKeys != null) {
+            _absentKeys.remove(key);
+        }
+    }
+
+    private Flowable<V> absentObservable(final K key)
+    {
+        // absence is checked again on subscription, an observable handed out while the key was
+        // absent binds to the key if a value was written for it in the meantime
+        return Flowable.defer(new Callable<Publisher<V>>() {
+            @Override
+            public Publisher<V> call() throws Exception
+            {
+                if (isKnownAbsent(key)) {
+                    return Flowable.empty();
+                }
+
+                return get(key);
+            }
+        });
+    }
+
+    private boolean needsFault(K key)
+    {
+        return _freshness == null || _freshness.needsFault(key);
+    }
+
+    private boolean needsRefault(K key, BehaviorProcessor<V> source)
+    {
+        if (_freshness != null && _freshness.needsFault(key)) {
+            return true;
+        }
+
+        // without a loader, the faults are delivered whether or not the key is subscribed
+        return _loader != null && !source.hasValue();
+    }
+
+    /**
+     * Faults the bound keys whose values are about to go stale
+     */
+    void refreshAhead()
+    {
+        List<K> dueKeys = _freshness.dueForRefresh(boundKeys());
+
+        if (!dueKeys.isEmpty()) {
+            emitFaults(dueKeys);
+        }
+    }
+
+    private void retainSource(K key, OnSubscribeAttach attach)
+    {
+        _writeLock.lock();
+        try {
+            Flowable<V> connector = cachedObservable(key);
+
+            _awaitingSubscription.remove(key);
+
+            // the key may have been disconnected by an error before the subscription and the
+            // subscriber may already have left again
+            if (connector != null && attach._subscriberCount.get() > 0) {
+                _cache.put(key, connector);
+            }
+        }
+        finally {
+            _writeLock.unlock();
+        }
+    }
+
+    private void detachSource(K key, OnSubscribeAttach attach)
     {
+        boolean isAbandoned = false;
+
         _writeLock.lock();
         try {
-            _cache.remove(key);
+            // a new subscriber may have arrived while the lock was being taken
+            if (attach._subscriberCount.get() == 0) {
+                _cache.remove(key);
+                isAbandoned = true;
+            }
         }
         finally {
             _writeLock.unlock();
         }
+
+        if (isAbandoned && _loader != null) {
+            _loader.abandon(key);
+        }
     }
 
-    private void emitUpdate(K key, Consumer<Processor<V, V>> updater, Action missHandler)
+    private void emitUpdate(K key, BiConsumer<SourceReference<V>, Processor<V, V>> updater, Action missHandler)
     {
         emitUpdate(key, updater, missHandler, false);
     }
 
-    private void emitUpdate(K key, Consumer<Processor<V, V>> updater, Action missHandler, boolean disconnect)
+    private void emitUpdate(K key, BiConsumer<SourceReference<V>, Processor<V, V>> updater, Action missHandler, boolean disconnect)
     {
+        SourceReference<V> sourceReference = null;
         Processor<V, V> subject = null;
 
         if (disconnect) {
@@ -204,15 +594,15 @@ public class SubjectMap<K, V>
         try {
             // if we have a subject, we will emit the new value on the subject
             if (_weakSources.containsKey(key)) {
-                WeakReference<Processor<V, V>> weakSource = _weakSources.get(key);
-
-                subject = weakSource.get();
+                sourceReference = _weakSources.get(key);
+                subject = sourceReference.get();
             }
 
             if (disconnect) {
                 _weakSources.remove(key);
                 _weakCache.remove(key);
                 _cache.remove(key);
+                _awaitingSubscription.remove(key);
             }
         }
         finally {
@@ -227,7 +617,7 @@ public class SubjectMap<K, V>
 
         try {
             if (subject != null) {
-                updater.accept(subject);
+                updater.accept(sourceReference, subject);
             }
             else {
                 missHandler.run();
@@ -240,7 +630,60 @@ public class SubjectMap<K, V>
 
     private void emitFault(K key)
     {
-        _faults.onNext(key);
+        emitFaults(Collections.singletonList(key));
+    }
+
+    private List<K> boundKeys()
+    {
+        _readLock.lock();
+        try {
+            return new ArrayList<>(_cache.keySet());
+        }
+        finally {
+            _readLock.unlock();
+        }
+    }
+
+    void emitFaults(List<K> keys)
+    {
+        for (K key : keys) {
+            _faults.onNext(key);
+        }
+
+        _batchedFaults.onNext(Collections.unmodifiableList(keys));
+
+        PrioritizedFaults<K> prioritizedFaults = _prioritizedFaults;
+
+        if (prioritizedFaults != null) {
+            prioritizedFaults.offer(keys);
+        }
+    }
+
+    private Flowable<V> cachedObservable(K key)
+    {
+        WeakReference<Flowable<V>> weakObservable = _weakCache.get(key);
+
+        return weakObservable != null ? weakObservable.get() : null;
+    }
+
+    /**
+     * @param key the key to check
+     * @return true if the key has a subscriber or was requested through {@link #getAll(Collection)}
+     * and its observable has yet to be subscribed or collected
+     */
+    boolean isWanted(K key)
+    {
+        _readLock.lock();
+        try {
+            if (_cache.containsKey(key)) {
+                return true;
+            }
+
+            return _awaitingSubscription.contains(key) && cachedObservable(key) != null;
+        }
+        finally {
+            _readLock.unlock();
+        }
     }
 
     /**
@@ -254,6 +697,66 @@ public class SubjectMap<K, V>
         return _faults;
     }
 
+    /**
+     * Returns a stream of batches of keys indicating which values need to be faulted in.
+     * Keys requested together through {@link #getAll(Collection)} are faulted as a single
+     * batch, all other keys are faulted in batches of one. Every key is also emitted through
+     * {@link #faults()}, only one of the streams should be used to satisfy the faults
+     *
+     * @return an observable stream of batches of keys
+     */
+    public Flowable<List<K>> batchedFaults()
+    {
+        return _batchedFaults;
+    }
+
+    /**
+     * Returns a stream of the outstanding keys which need to be faulted in, emitting the
+     * highest priority keys first as they are requested. The most recently faulted keys have
+     * the highest priority, keys requested together through {@link #getAll(Collection)} are
+     * emitted in the order they were requested. Keys whose subscribers have all left before
+     * the key is requested are dropped. Each key is emitted to only one subscriber of the
+     * stream, allowing several workers to share it. Only the keys faulted while the stream has
+     * a subscriber are queued and the queue is cleared once the last subscriber leaves.
+     *
+     * The stream should be requested a few keys at a time, an unbounded request receives the
+     * keys as they are faulted, leaving nothing to prioritize
+     *
+     * @return an observable stream of keys, highest priority first
+     */
+    public Flowable<K> prioritizedFaults()
+    {
+        PrioritizedFaults<K> prioritizedFaults = _prioritizedFaults;
+
+        if (prioritizedFaults == null) {
+            synchronized (this) {
+                prioritizedFaults = _prioritizedFaults;
+
+                if (prioritizedFaults == null) {
+                    prioritizedFaults = new PrioritizedFaults<>(this);
+                    _prioritizedFaults = prioritizedFaults;
+                }
+            }
+        }
+
+        return prioritizedFaults;
+    }
+
+    /**
+     * Moves any of the keys still waiting in {@link #prioritizedFaults()} ahead of all other
+     * keys, such as the keys of the rows currently visible
+     *
+     * @param keys the keys to prioritize, highest priority first
+     */
+    public void prioritize(Collection<K> keys)
+    {
+        PrioritizedFaults<K> prioritizedFaults = _prioritizedFaults;
+
+        if (prioritizedFaults != null) {
+            prioritizedFaults.prioritize(keys);
+        }
+    }
+
     /**
      * Emits the specified value from the observable associated with the specified key
      * if there is an associated observable. If no observable has subscribed to the key,
@@ -264,14 +767,16 @@ public class SubjectMap<K, V>
      * @param valueProvider the method to be called to create the new value in the case of a hit
      * @param missHandler the callback for when a subscriber has not been bound
      */
-    public void onNext(K key, final Callable<V> valueProvider, Action missHandler)
+    public void onNext(final K key, final Callable<V> valueProvider, Action missHandler)
     {
-        emitUpdate(key, new Consumer<Processor<V, V>>() {
+        clearAbsent(key);
+
+        emitUpdate(key, new BiConsumer<SourceReference<V>, Processor<V, V>>() {
             @Override
-            public void accept(Processor<V, V> subject)
+            public void accept(SourceReference<V> sourceReference, Processor<V, V> subject)
             {
                 try {
-                    subject.onNext(valueProvider.call());
+                    emitValue(key, sourceReference, subject, UNVERSIONED, valueProvider.call());
                 }
                 catch (Exception error) {
                     subject.onError(error);
@@ -314,6 +819,152 @@ public class SubjectMap<K, V>
         });
     }
 
+    /**
+     * Faults every key which is currently bound to a subscriber, such as after reconnecting
+     * to the entity store. The keys are faulted as batches through {@link #batchedFaults()},
+     * limited to the invalidation rate the map was built with. The observables are left
+     * untouched, subscribers keep the current values until new values are supplied
+     */
+    public void invalidateAll()
+    {
+        invalidateKeys(boundKeys());
+    }
+
+    /**
+     * Faults the keys currently bound to a subscriber which match the predicate, as
+     * described by {@link #invalidateAll()}
+     *
+     * @param predicate the test selecting the keys to invalidate
+     */
+    public void invalidate(Predicate<K> predicate)
+    {
+        List<K> invalidatedKeys = new ArrayList<>();
+
+        try {
+            for (K key : boundKeys()) {
+                if (predicate.test(key)) {
+                    invalidatedKeys.add(key);
+                }
+            }
+        }
+        catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        invalidateKeys(invalidatedKeys);
+    }
+
+    private void invalidateKeys(List<K> keys)
+    {
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        if (_invalidator != null) {
+            _invalidator.offer(keys);
+        }
+        else {
+            emitFaults(keys);
+        }
+    }
+
+    /**
+     * Emits the specified value from the observable associated with the specified key
+     * if there is an associated observable and the version is newer than any version
+     * already emitted for it. Replayed and out of order versions are dropped and racing
+     * writers are ordered so that the newest version is always emitted last. A value written
+     * while another is being emitted for the same key, such as by one of its subscribers, is
+     * emitted once that emission is complete, by the thread performing it.
+     *
+     * Versions are only tracked for as long as the key is bound. Once the key has been unbound,
+     * such as after every subscriber has left and the observable was collected, the versions
+     * are forgotten and any version is accepted again, including a replayed old version
+     *
+     * @param key key with which the specified value is to be associated
+     * @param version the version of the value, increasing with each change to the value
+     * @param value value to be send to the specified observable
+     */
+    public void onNext(final K key, final long version, final V value)
+    {
+        clearAbsent(key);
+
+        emitUpdate(key, new BiConsumer<SourceReference<V>, Processor<V, V>>() {
+            @Override
+            public void accept(SourceReference<V> sourceReference, Processor<V, V> subject)
+            {
+                emitValue(key, sourceReference, subject, version, value);
+            }
+        }, EMPTY_ACTION);
+    }
+
+    private void emitValue(K key, SourceReference<V> sourceReference, Processor<V, V> subject, long version, V value)
+    {
+        synchronized (sourceReference) {
+            if (version != UNVERSIONED) {
+                if (version <= sourceReference._version) {
+                    return;
+                }
+
+                sourceReference._version = version;
+            }
+
+            if (sourceReference._isEmitting) {
+                if (sourceReference._queued == null) {
+                    sourceReference._queued = new ArrayDeque<>();
+                }
+
+                sourceReference._queued.add(value);
+                return;
+            }
+
+            sourceReference._isEmitting = true;
+        }
+
+        boolean isDrained = false;
+
+        try {
+            while (true) {
+                deliverValue(key, subject, value);
+
+                synchronized (sourceReference) {
+                    if (sourceReference._queued == null || sourceReference._queued.isEmpty()) {
+                        sourceReference._isEmitting = false;
+                        isDrained = true;
+                        return;
+                    }
+
+                    value = sourceReference._queued.poll();
+                }
+            }
+        }
+        finally {
+            if (!isDrained) {
+                // a subscriber threw, the queued values are dropped rather than emitted out of order
+                synchronized (sourceReference) {
+                    sourceReference._isEmitting = false;
+                    sourceReference._queued = null;
+                }
+            }
+        }
+    }
+
+    private void deliverValue(K key, Processor<V, V> subject, V value)
+    {
+        if (_freshness != null) {
+            _freshness.record(key, value);
+        }
+
+        if (_isSuppressingEqualValues && subject instanceof BehaviorProcessor) {
+            V lastValue = ((BehaviorProcessor<V>) subject).getValue();
+
+            if (lastValue != null && lastValue.equals(value)) {
+                return;
+            }
+        }
+
+        subject.onNext(value);
+    }
+
     /**
      * Emits the error from the observable associated with the specified key. After the
      * error is emitted, the observable will be automatically unbound, subsequent calls
@@ -324,15 +975,47 @@ public class SubjectMap<K, V>
      */
     public void onError(K key, final Throwable error)
     {
-        emitUpdate(key, new Consumer<Processor<V, V>>() {
+        if (_freshness != null) {
+            _freshness.remove(key);
+        }
+
+        emitUpdate(key, new BiConsumer<SourceReference<V>, Processor<V, V>>() {
             @Override
-            public void accept(Processor<V, V> subject)
+            public void accept(SourceReference<V> sourceReference, Processor<V, V> subject)
             {
                 subject.onError(error);
             }
         }, EMPTY_ACTION, true);
     }
 
+    /**
+     * Reports that the specified key has no value. The observable associated with the key
+     * completes without emitting a value and is automatically unbound. If the map was built
+     * with an absent time to live, observables requested for the key within that period
+     * complete immediately without faulting the key, otherwise subsequent calls to get will
+     * return a new observable and attempt to fault the value in
+     *
+     * @param key the key which has no value
+     */
+    public void onAbsent(K key)
+    {
+        if (_freshness != null) {
+            _freshness.remove(key);
+        }
+
+        if (_absentKeys != null) {
+            _absentKeys.add(key);
+        }
+
+        emitUpdate(key, new BiConsumer<SourceReference<V>, Processor<V, V>>() {
+            @Override
+            public void accept(SourceReference<V> sourceReference, Processor<V, V> subject)
+            {
+                subject.onComplete();
+            }
+        }, EMPTY_ACTION, true);
+    }
+
     /**
      * Returns an observable associated with the specified key. The observable will
      * request that a value be supplied when the observable is bound and automatically
@@ -340,7 +1023,8 @@ public class SubjectMap<K, V>
      *
      * @param key the key whose associated observable is to be returned
      * @return an observable which, when subscribed, will be bound to the specified key
-     * and will receive all emissions and errors for the specified key
+     * and will receive all emissions and errors for the specified key, completing if the
+     * key is reported absent
      */
     public Flowable<V> get(K key)
     {
@@ -380,9 +1064,15 @@ public class SubjectMap<K, V>
                         // the target of the weak source should have already been cleared by the
                         // garbage collector since the source is retained by the cached observable
                         _weakSources.remove(key);
+                        _awaitingSubscription.remove(key);
                     }
                 }
 
+                if (isKnownAbsent(key)) {
+                    // the key was recently reported absent, there is nothing to fault
+                    return absentObservable(key);
+                }
+
                 // no observable was found in the cache, create a new binding
                 observable = Flowable.create(new OnSubscribeAttach(key), BackpressureStrategy.LATEST);
 
@@ -399,4 +1089,110 @@ public class SubjectMap<K, V>
             _readLock.unlock();
         }
     }
+
+    /**
+     * Returns the observables associated with each of the specified keys, in the same order.
+     * The keys are resolved under a single acquisition of the lock, rather than one per key,
+     * and the keys which were not already bound are faulted together as a single batch. The
+     * values supplied for those keys are held until the observables are subscribed
+     *
+     * @param keys the keys whose associated observables are to be returned
+     * @return a list of observables, each of which behaves as if returned by {@link #get(Object)}
+     */
+    public List<Flowable<V>> getAll(Collection<K> keys)
+    {
+        return getAll(keys, true);
+    }
+
+    /**
+     * Returns the observables associated with each of the specified keys, in the same order,
+     * resolving the keys under a single acquisition of the lock. When not faulting, the keys
+     * which were not already bound are only faulted once their observables are subscribed,
+     * exactly as if returned by {@link #get(Object)}, so keys which are never subscribed are
+     * never faulted
+     *
+     * @param keys the keys whose associated observables are to be returned
+     * @param isFaulting whether the keys which were not already bound are faulted up front, as
+     *                   a single batch, see {@link #getAll(Collection)}
+     * @return a list of observables, each of which behaves as if returned by {@link #get(Object)}
+     */
+    public List<Flowable<V>> getAll(Collection<K> keys, boolean isFaulting)
+    {
+        List<K> keyList = keys instanceof List && keys instanceof RandomAccess ? (List<K>) keys : new ArrayList<>(keys);
+        List<Flowable<V>> observables = new ArrayList<>(keyList.size());
+        boolean hasMisses = false;
+
+        _readLock.lock();
+        try {
+            for (K key : keyList) {
+                Flowable<V> observable = cachedObservable(key);
+
+                hasMisses |= observable == null;
+                observables.add(observable);
+            }
+        }
+        finally {
+            _readLock.unlock();
+        }
+
+        if (!hasMisses) {
+            return observables;
+        }
+
+        List<K> faultedKeys = new ArrayList<>();
+
+        _writeLock.lock();
+        try {
+            for (int i = 0; i < keyList.size(); ++i) {
+                if (observables.get(i) != null) {
+                    continue;
+                }
+
+                K key = keyList.get(i);
+
+                // recheck since the lock was retaken, or the key was repeated within the batch
+                Flowable<V> observable = cachedObservable(key);
+
+                if (observable == null && isKnownAbsent(key)) {
+                    observable = absentObservable(key);
+                }
+                else if (observable == null && !isFaulting) {
+                    // the key is faulted when subscribed, clearing any source left behind by
+                    // an observable which has since been collected
+                    _weakSources.remove(key);
+                    _awaitingSubscription.remove(key);
+
+                    observable = Flowable.create(new OnSubscribeAttach(key), BackpressureStrategy.LATEST);
+
+                    _weakCache.put(key, new WeakReference<>(observable));
+                }
+                else if (observable == null) {
+                    // the source is created up front so values supplied before the first
+                    // subscription are held for it, it is strongly retained by the observable
+                    BehaviorProcessor<V> source = createSource(key);
+
+                    observable = Flowable.create(new OnSubscribeAttach(key, source), BackpressureStrategy.LATEST);
+
+                    _weakCache.put(key, new WeakReference<>(observable));
+                    _weakSources.put(key, new SourceReference<V>(source));
+                    _awaitingSubscription.add(key);
+
+                    if (needsFault(key)) {
+                        faultedKeys.add(key);
+                    }
+                }
+
+                observables.set(i, observable);
+            }
+        }
+        finally {
+            _writeLock.unlock();
+        }
+
+        if (!faultedKeys.isEmpty()) {
+            emitFaults(faultedKeys);
+        }
+
+        return observables;
+    }
 }
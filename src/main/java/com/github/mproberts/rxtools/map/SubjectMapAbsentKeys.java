@@ -0,0 +1,73 @@
+package com.github.mproberts.rxtools.map;
+
+import io.reactivex.Scheduler;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the keys of a SubjectMap which were reported absent, until the time to live has
+ * passed. As every key lives for the same period the keys expire in the order they were added,
+ * expired keys are dropped from the front as new keys are added.
+ * @param <K> key type of the SubjectMap
+ */
+class SubjectMapAbsentKeys<K>
+{
+    private final long _ttl;
+    private final Scheduler _scheduler;
+
+    private final LinkedHashMap<K, Long> _expiries = new LinkedHashMap<>();
+
+    SubjectMapAbsentKeys(long ttl, TimeUnit unit, Scheduler scheduler)
+    {
+        _ttl = unit.toMillis(ttl);
+        _scheduler = scheduler;
+    }
+
+    private long now()
+    {
+        return _scheduler.now(TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void add(K key)
+    {
+        long now = now();
+        Iterator<Map.Entry<K, Long>> iterator = _expiries.entrySet().iterator();
+
+        while (iterator.hasNext() && iterator.next().getValue() <= now) {
+            iterator.remove();
+        }
+
+        // re-adding moves the key to the back, keeping the keys ordered by expiry
+        _expiries.remove(key);
+        _expiries.put(key, now + _ttl);
+    }
+
+    synchronized void remove(K key)
+    {
+        _expiries.remove(key);
+    }
+
+    /**
+     * @param key the key to check
+     * @return true if the key was reported absent within the time to live
+     */
+    synchronized boolean contains(K key)
+    {
+        Long expiry = _expiries.get(key);
+
+        if (expiry == null) {
+            return false;
+        }
+
+        if (expiry <= now()) {
+            _expiries.remove(key);
+
+            return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.mproberts.rxtools.map;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the age of the values of a SubjectMap. The most recent value of each key is kept,
+ * up to a maximum number of keys, so that a new observable for the key can start from it. A
+ * value older than the stale age is still emitted but the key is faulted again to refresh it.
+ *
+ * When refreshing ahead, the keys which are bound are faulted again once their values come
+ * within the refresh-ahead period of going stale. The keys falling due together are faulted
+ * as a single batch by a sweep scheduled for the earliest due time.
+ * @param <K> key type of the SubjectMap
+ * @param <V> value type of the SubjectMap
+ */
+class SubjectMapFreshness<K, V>
+{
+    private final SubjectMap<K, V> _subjectMap;
+    private final long _staleAfter;
+    private final long _refreshAhead;
+    private final Scheduler _scheduler;
+    private final Scheduler.Worker _worker;
+
+    private final LinkedHashMap<K, TimestampedValue<V>> _values;
+
+    private long _nextSweep = Long.MAX_VALUE;
+    private Disposable _sweep;
+
+    static final class TimestampedValue<V>
+    {
+        final V value;
+        final long updatedAt;
+        boolean isRefreshRequested;
+
+        TimestampedValue(V value, long updatedAt)
+        {
+            this.value = value;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    private final Runnable _sweepRunnable = new Runnable() {
+        @Override
+        public void run()
+        {
+            synchronized (SubjectMapFreshness.this) {
+                _nextSweep = Long.MAX_VALUE;
+                _sweep = null;
+            }
+
+            _subjectMap.refreshAhead();
+        }
+    };
+
+    SubjectMapFreshness(SubjectMap<K, V> subjectMap, long staleAfter, long refreshAhead, TimeUnit unit, final int maxValues, Scheduler scheduler)
+    {
+        _subjectMap = subjectMap;
+        _staleAfter = unit.toMillis(staleAfter);
+        _refreshAhead = unit.toMillis(refreshAhead);
+        _scheduler = scheduler;
+        _worker = _refreshAhead > 0 ? scheduler.createWorker() : null;
+
+        _values = new LinkedHashMap<K, TimestampedValue<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, TimestampedValue<V>> eldest)
+            {
+                return size() > maxValues;
+            }
+        };
+    }
+
+    private long now()
+    {
+        return _scheduler.now(TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param key the key whose value is to be returned
+     * @return the most recent value of the key or null if there is none
+     */
+    synchronized TimestampedValue<V> lastValue(K key)
+    {
+        return _values.get(key);
+    }
+
+    /**
+     * Determines whether the key must be faulted, marking a stale value as being refreshed so
+     * that it is not faulted again until a new value arrives.
+     * @param key the key to check
+     * @return true if the key has no value or if its value is stale and not already being refreshed
+     */
+    synchronized boolean needsFault(K key)
+    {
+        TimestampedValue<V> value = _values.get(key);
+
+        if (value == null) {
+            return true;
+        }
+
+        if (value.isRefreshRequested || now() - value.updatedAt < _staleAfter) {
+            return false;
+        }
+
+        value.isRefreshRequested = true;
+
+        return true;
+    }
+
+    void record(K key, V value)
+    {
+        long now = now();
+
+        synchronized (this) {
+            _values.put(key, new TimestampedValue<>(value, now));
+        }
+
+        scheduleSweep(now + _staleAfter - _refreshAhead);
+    }
+
+    synchronized void remove(K key)
+    {
+        _values.remove(key);
+    }
+
+    private void scheduleSweep(long at)
+    {
+        if (_worker == null) {
+            return;
+        }
+
+        synchronized (this) {
+            if (at >= _nextSweep) {
+                return;
+            }
+
+            if (_sweep != null) {
+                _sweep.dispose();
+            }
+
+            _nextSweep = at;
+            _sweep = _worker.schedule(_sweepRunnable, Math.max(0, at - now()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Finds the keys among those bound whose values are due to be refreshed, scheduling the
+     * next sweep for the earliest of the remaining keys.
+     * @param boundKeys the keys which are currently bound
+     * @return the keys to fault
+     */
+    List<K> dueForRefresh(Collection<K> boundKeys)
+    {
+        List<K> due = new ArrayList<>();
+        long next = Long.MAX_VALUE;
+
+        synchronized (this) {
+            long now = now();
+
+            for (K key : boundKeys) {
+                TimestampedValue<V> value = _values.get(key);
+
+                if (value == null || value.isRefreshRequested) {
+                    continue;
+                }
+
+                long dueAt = value.updatedAt + _staleAfter - _refreshAhead;
+
+                if (now >= dueAt) {
+                    value.isRefreshRequested = true;
+                    due.add(key);
+                }
+                else {
+                    next = Math.min(next, dueAt);
+                }
+            }
+        }
+
+        if (next != Long.MAX_VALUE) {
+            scheduleSweep(next);
+        }
+
+        return due;
+    }
+}
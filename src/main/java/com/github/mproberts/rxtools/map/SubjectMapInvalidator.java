@@ -0,0 +1,106 @@
+package com.github.mproberts.rxtools.map;
+
+import io.reactivex.Scheduler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads the faults of invalidated keys over time, faulting at most the maximum number of
+ * keys in each period. Keys invalidated again while still waiting are faulted only once and
+ * keys whose subscribers have all left by the time their batch is faulted are dropped.
+ * @param <K> key type of the SubjectMap
+ */
+class SubjectMapInvalidator<K>
+{
+    private final SubjectMap<K, ?> _subjectMap;
+    private final int _maxKeys;
+    private final long _period;
+    private final Scheduler _scheduler;
+    private final Scheduler.Worker _worker;
+
+    private final Set<K> _pending = new LinkedHashSet<>();
+
+    private long _nextBatch = Long.MIN_VALUE;
+    private boolean _isScheduled;
+
+    private final Runnable _batchRunnable = new Runnable() {
+        @Override
+        public void run()
+        {
+            faultBatch();
+        }
+    };
+
+    SubjectMapInvalidator(SubjectMap<K, ?> subjectMap, int maxKeys, long period, TimeUnit unit, Scheduler scheduler)
+    {
+        _subjectMap = subjectMap;
+        _maxKeys = maxKeys;
+        _period = unit.toMillis(period);
+        _scheduler = scheduler;
+        _worker = scheduler.createWorker();
+    }
+
+    private long now()
+    {
+        return _scheduler.now(TimeUnit.MILLISECONDS);
+    }
+
+    void offer(Collection<K> keys)
+    {
+        synchronized (this) {
+            _pending.addAll(keys);
+
+            if (_isScheduled || _pending.isEmpty()) {
+                return;
+            }
+
+            _isScheduled = true;
+
+            scheduleBatch();
+        }
+    }
+
+    private void scheduleBatch()
+    {
+        _worker.schedule(_batchRunnable, Math.max(0, _nextBatch - now()), TimeUnit.MILLISECONDS);
+    }
+
+    private void faultBatch()
+    {
+        List<K> batch = new ArrayList<>();
+
+        synchronized (this) {
+            Iterator<K> iterator = _pending.iterator();
+
+            while (iterator.hasNext() && batch.size() < _maxKeys) {
+                K key = iterator.next();
+
+                iterator.remove();
+
+                // skip the keys no one is bound to any longer
+                if (_subjectMap.isWanted(key)) {
+                    batch.add(key);
+                }
+            }
+
+            _nextBatch = now() + _period;
+
+            if (_pending.isEmpty()) {
+                _isScheduled = false;
+            }
+            else {
+                scheduleBatch();
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            _subjectMap.emitFaults(batch);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.github.mproberts.rxtools.map;
+
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.SingleSource;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Satisfies the faults of a SubjectMap through a batch loader. Keys which are already being
+ * loaded are not faulted again and at most the maximum number of batches are loaded at once,
+ * faults arriving while the limit is reached are queued and loaded together as the next batch.
+ * Queued keys whose subscribers have all left before their batch starts are not loaded, a batch
+ * which has started is cancelled once the subscribers of all of its keys have left and keys
+ * missing from a loaded batch are reported absent.
+ * @param <K> key type of the SubjectMap
+ * @param <V> value type of the SubjectMap
+ */
+class SubjectMapLoader<K, V> implements Consumer<List<K>>
+{
+    private final SubjectMap<K, V> _subjectMap;
+    private final Function<Set<K>, Single<Map<K, V>>> _loader;
+    private final int _maxInFlight;
+    private final Scheduler _scheduler;
+
+    private final Set<K> _pending = new LinkedHashSet<>();
+    private final Map<K, Batch<K>> _inFlight = new HashMap<>();
+    private int _inFlightBatches;
+
+    private static final class Batch<K>
+    {
+        final Set<K> keys;
+        Disposable disposable;
+        boolean isCancelled;
+
+        Batch(Set<K> keys)
+        {
+            this.keys = keys;
+        }
+    }
+
+    SubjectMapLoader(SubjectMap<K, V> subjectMap, Function<Set<K>, Single<Map<K, V>>> loader, int maxInFlight, Scheduler scheduler)
+    {
+        _subjectMap = subjectMap;
+        _loader = loader;
+        _maxInFlight = maxInFlight;
+        _scheduler = scheduler;
+    }
+
+    @Override
+    public void accept(List<K> keys)
+    {
+        synchronized (this) {
+            for (K key : keys) {
+                if (!_inFlight.containsKey(key)) {
+                    _pending.add(key);
+                }
+            }
+        }
+
+        drain();
+    }
+
+    /**
+     * @return the number of keys currently being loaded
+     */
+    synchronized int inFlightCount()
+    {
+        return _inFlight.size();
+    }
+
+    /**
+     * Cancels the batch loading the key should the subscribers of every key in the batch have
+     * left, called once the last subscriber to the key has left
+     * @param key the key which was abandoned
+     */
+    void abandon(K key)
+    {
+        Disposable disposable;
+
+        synchronized (this) {
+            Batch<K> batch = _inFlight.get(key);
+
+            if (batch == null || batch.isCancelled) {
+                return;
+            }
+
+            for (K batchKey : batch.keys) {
+                if (_subjectMap.isWanted(batchKey)) {
+                    return;
+                }
+            }
+
+            batch.isCancelled = true;
+            disposable = batch.disposable;
+
+            _inFlight.keySet().removeAll(batch.keys);
+            --_inFlightBatches;
+        }
+
+        if (disposable != null) {
+            disposable.dispose();
+        }
+
+        drain();
+    }
+
+    private void drain()
+    {
+        while (true) {
+            final Set<K> keys = new LinkedHashSet<>();
+            final Batch<K> batch = new Batch<>(keys);
+
+            synchronized (this) {
+                if (_inFlightBatches >= _maxInFlight || _pending.isEmpty()) {
+                    return;
+                }
+
+                for (K key : _pending) {
+                    // skip the keys no one is waiting on any longer
+                    if (_subjectMap.isWanted(key)) {
+                        keys.add(key);
+                    }
+                }
+
+                _pending.clear();
+
+                if (keys.isEmpty()) {
+                    continue;
+                }
+
+                for (K key : keys) {
+                    _inFlight.put(key, batch);
+                }
+
+                ++_inFlightBatches;
+            }
+
+            load(batch);
+        }
+    }
+
+    private void load(final Batch<K> batch)
+    {
+        Disposable disposable = Single
+                .defer(new Callable<SingleSource<Map<K, V>>>() {
+                    @Override
+                    public SingleSource<Map<K, V>> call() throws Exception
+                    {
+                        return _loader.apply(batch.keys);
+                    }
+                })
+                .subscribeOn(_scheduler)
+                .subscribe(new BiConsumer<Map<K, V>, Throwable>() {
+                    @Override
+                    public void accept(Map<K, V> values, Throwable error)
+                    {
+                        synchronized (SubjectMapLoader.this) {
+                            if (batch.isCancelled) {
+                                return;
+                            }
+
+                            _inFlight.keySet().removeAll(batch.keys);
+                            --_inFlightBatches;
+                        }
+
+                        for (K key : batch.keys) {
+                            if (error != null) {
+                                _subjectMap.onError(key, error);
+                            }
+                            else if (values.containsKey(key)) {
+                                _subjectMap.onNext(key, values.get(key));
+                            }
+                            else {
+                                _subjectMap.onAbsent(key);
+                            }
+                        }
+
+                        drain();
+                    }
+                });
+
+        boolean isCancelled;
+
+        synchronized (this) {
+            batch.disposable = disposable;
+            isCancelled = batch.isCancelled;
+        }
+
+        if (isCancelled) {
+            // abandoned before the disposable was available
+            disposable.dispose();
+        }
+    }
+}
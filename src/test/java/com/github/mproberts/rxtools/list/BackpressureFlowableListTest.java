@@ -1,13 +1,20 @@
 package com.github.mproberts.rxtools.list;
 
+import io.reactivex.FlowableSubscriber;
 import io.reactivex.functions.Consumer;
 import io.reactivex.observers.BaseTestConsumer;
 import io.reactivex.schedulers.Schedulers;
 import io.reactivex.schedulers.TestScheduler;
 import io.reactivex.subscribers.TestSubscriber;
 import org.junit.Test;
+import org.reactivestreams.Subscription;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 
@@ -120,4 +127,246 @@ public class BackpressureFlowableListTest
 
         testSubscriber.dispose();
     }
+
+    @Test
+    public void testBufferingCompactsChanges()
+    {
+        TestScheduler testScheduler = new TestScheduler();
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>(Arrays.asList(1, 2, 3, 4, 5));
+        FlowableList<Integer> bufferedList = list.buffer(50, TimeUnit.MILLISECONDS, testScheduler);
+
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+
+        bufferedList.updates().subscribe(testSubscriber);
+
+        testScheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        list.add(6);
+        list.move(0, 4);
+        list.move(4, 2);
+        list.remove(5);
+        list.add(0, 0);
+
+        testScheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        testSubscriber.assertValueCount(2);
+
+        Update<Integer> update = testSubscriber.values().get(1);
+
+        // the insert and removal of 6 cancel, the two moves fold into one
+        assertEquals(Arrays.asList(0, 2, 3, 1, 4, 5), update.list);
+        assertEquals(Arrays.asList(Change.moved(0, 2), Change.inserted(0)), update.changes);
+
+        testSubscriber.dispose();
+    }
+
+    @Test
+    public void testBufferingWithMaxCount()
+    {
+        TestScheduler testScheduler = new TestScheduler();
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>();
+        FlowableList<Integer> bufferedList = list.buffer(50, TimeUnit.MILLISECONDS, testScheduler, 10);
+
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+
+        bufferedList.updates().subscribe(testSubscriber);
+
+        for (int i = 0; i < 29; ++i) {
+            list.add(i);
+        }
+
+        // the initial reload plus 29 inserts fill three buffers before the timespan elapses
+        testSubscriber.assertValueCount(3);
+
+        testScheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        testSubscriber.assertValueCount(3);
+        assertEquals(29, testSubscriber.values().get(2).list.size());
+
+        testSubscriber.dispose();
+    }
+
+    @Test
+    public void testDebounceEmitsIdleUpdatesImmediately()
+    {
+        TestScheduler testScheduler = new TestScheduler();
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>();
+        FlowableList<Integer> debouncedList = list.debounce(50, 200, TimeUnit.MILLISECONDS, testScheduler);
+
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+
+        debouncedList.updates().subscribe(testSubscriber);
+
+        testSubscriber.assertValueCount(1);
+
+        testScheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        list.add(1);
+
+        // the list was quiet, no need to wait
+        testSubscriber.assertValueCount(2);
+        assertEquals(Collections.singletonList(Change.inserted(0)), testSubscriber.values().get(1).changes);
+
+        list.add(2);
+        list.add(3);
+
+        testSubscriber.assertValueCount(2);
+
+        testScheduler.advanceTimeBy(40, TimeUnit.MILLISECONDS);
+
+        list.add(4);
+
+        testScheduler.advanceTimeBy(40, TimeUnit.MILLISECONDS);
+
+        // still bursting, the quiet period restarted
+        testSubscriber.assertValueCount(2);
+
+        testScheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+
+        testSubscriber.assertValueCount(3);
+
+        Update<Integer> update = testSubscriber.values().get(2);
+
+        assertEquals(Arrays.asList(1, 2, 3, 4), update.list);
+        assertEquals(Arrays.asList(Change.inserted(1), Change.inserted(2), Change.inserted(3)), update.changes);
+
+        testSubscriber.dispose();
+    }
+
+    @Test
+    public void testDebounceMaxWait()
+    {
+        TestScheduler testScheduler = new TestScheduler();
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>();
+        FlowableList<Integer> debouncedList = list.debounce(50, 200, 100, TimeUnit.MILLISECONDS, testScheduler);
+
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+
+        debouncedList.updates().subscribe(testSubscriber);
+
+        testSubscriber.assertValueCount(1);
+
+        // a steady stream of updates never goes quiet
+        for (int i = 0; i < 10; ++i) {
+            list.add(i);
+            testScheduler.advanceTimeBy(30, TimeUnit.MILLISECONDS);
+        }
+
+        // flushed once after the max wait and once after the stream went quiet
+        testSubscriber.assertValueCount(2);
+
+        testScheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        testSubscriber.assertValueCount(3);
+        assertEquals(10, testSubscriber.values().get(2).list.size());
+
+        // a burst past the max count is emitted straight away
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 101; ++i) {
+            list.add(i);
+        }
+
+        testSubscriber.assertValueCount(5);
+
+        testSubscriber.dispose();
+    }
+
+    @Test
+    public void testConflatingSlowSubscriber()
+    {
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>();
+        FlowableList<Integer> conflatedList = list.conflate(10);
+
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>(0);
+
+        conflatedList.updates().subscribe(testSubscriber);
+
+        for (int i = 0; i < 5; ++i) {
+            list.add(i);
+        }
+
+        testSubscriber.assertValueCount(0);
+        testSubscriber.request(1);
+        testSubscriber.assertValueCount(1);
+
+        // the initial reload absorbs the subsequent inserts
+        Update<Integer> update1 = testSubscriber.values().get(0);
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), update1.list);
+        assertEquals(Collections.singletonList(Change.reloaded()), update1.changes);
+
+        list.add(5);
+        list.remove(0);
+        list.add(6);
+
+        testSubscriber.request(1);
+        testSubscriber.assertValueCount(2);
+
+        Update<Integer> update2 = testSubscriber.values().get(1);
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), update2.list);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6),
+                TestTools.applyChanges(update1.list, update2.list, update2.changes));
+
+        for (int i = 0; i < 20; ++i) {
+            list.add(i);
+        }
+
+        testSubscriber.request(1);
+        testSubscriber.assertValueCount(3);
+
+        // too many changes to merge, fall back to a reload
+        Update<Integer> update3 = testSubscriber.values().get(2);
+
+        assertEquals(26, update3.list.size());
+        assertEquals(Collections.singletonList(Change.reloaded()), update3.changes);
+
+        testSubscriber.assertNoErrors();
+        testSubscriber.dispose();
+    }
+
+    @Test
+    public void testConflatingRejectsNonPositiveRequest()
+    {
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>(Arrays.asList(1, 2, 3));
+        final AtomicReference<Subscription> subscription = new AtomicReference<>();
+        final List<Throwable> errors = new ArrayList<>();
+
+        list.conflate(10).updates().subscribe(new FlowableSubscriber<Update<Integer>>() {
+            @Override
+            public void onSubscribe(Subscription s)
+            {
+                subscription.set(s);
+            }
+
+            @Override
+            public void onNext(Update<Integer> update)
+            {
+                fail("no updates were requested");
+            }
+
+            @Override
+            public void onError(Throwable error)
+            {
+                errors.add(error);
+            }
+
+            @Override
+            public void onComplete()
+            {
+                fail("the stream should end in an error");
+            }
+        });
+
+        subscription.get().request(0);
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof IllegalArgumentException);
+
+        // the upstream was cancelled, later changes go nowhere
+        list.add(4);
+
+        assertEquals(1, errors.size());
+    }
 }
@@ -13,6 +13,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class BaseFlowableListTest
@@ -170,4 +172,21 @@ public class BaseFlowableListTest
             assertTrue(list.contains(i));
         }
     }
+
+    @Test
+    public void testReplayedStateIsShared()
+    {
+        list.add(1);
+        list.add(2);
+
+        TestSubscriber<Update<Integer>> testSubscriber1 = list.updates().test();
+        TestSubscriber<Update<Integer>> testSubscriber2 = list.updates().test();
+
+        List<Integer> replayed1 = testSubscriber1.values().get(0).list;
+        List<Integer> replayed2 = testSubscriber2.values().get(0).list;
+
+        assertEquals(Arrays.asList(1, 2), replayed1);
+        assertTrue(replayed1 instanceof ImmutableList);
+        assertSame(replayed1, replayed2);
+    }
 }
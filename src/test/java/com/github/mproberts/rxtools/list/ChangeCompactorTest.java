@@ -0,0 +1,184 @@
+package com.github.mproberts.rxtools.list;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ChangeCompactorTest
+{
+    private static List<Integer> applyIdentityChanges(List<Integer> before, List<Change> changes)
+    {
+        List<Integer> target = new ArrayList<>(before);
+
+        for (Change change : changes) {
+            switch (change.type) {
+                case Inserted:
+                    target.add(change.to, null);
+                    break;
+                case Moved:
+                    target.add(change.to, target.remove(change.from));
+                    break;
+                case Removed:
+                    target.remove(change.from);
+                    break;
+            }
+        }
+
+        return target;
+    }
+
+    @Test
+    public void testInsertThenRemoveCancels()
+    {
+        List<Change> changes = Arrays.asList(
+                Change.inserted(2),
+                Change.inserted(3),
+                Change.removed(2));
+
+        assertEquals(Collections.singletonList(Change.inserted(2)), ChangeCompactor.compact(changes, 6));
+
+        changes = Arrays.asList(
+                Change.inserted(0),
+                Change.removed(0));
+
+        assertEquals(Collections.emptyList(), ChangeCompactor.compact(changes, 5));
+    }
+
+    @Test
+    public void testMoveChainsFold()
+    {
+        List<Change> changes = Arrays.asList(
+                Change.moved(0, 2),
+                Change.moved(2, 4),
+                Change.moved(4, 1),
+                Change.moved(1, 0));
+
+        assertEquals(Collections.emptyList(), ChangeCompactor.compact(changes, 5));
+
+        changes = Arrays.asList(
+                Change.moved(0, 2),
+                Change.moved(2, 4));
+
+        assertEquals(Collections.singletonList(Change.moved(0, 4)), ChangeCompactor.compact(changes, 5));
+    }
+
+    @Test
+    public void testCanonicalOrder()
+    {
+        List<Change> changes = Arrays.asList(
+                Change.removed(1),
+                Change.inserted(3),
+                Change.removed(1),
+                Change.inserted(1),
+                Change.removed(1));
+
+        assertEquals(Arrays.asList(
+                Change.removed(2),
+                Change.removed(1),
+                Change.inserted(2)),
+                ChangeCompactor.compact(changes, 10));
+    }
+
+    @Test
+    public void testReloadFallback()
+    {
+        assertEquals(Collections.singletonList(Change.reloaded()),
+                ChangeCompactor.compact(Arrays.asList(Change.inserted(0), Change.reloaded()), 1));
+
+        // three inserts into a list of three is cheaper as a reload
+        assertEquals(Collections.singletonList(Change.reloaded()),
+                ChangeCompactor.compact(Arrays.asList(Change.inserted(0), Change.inserted(0), Change.inserted(0)), 3, 0.5f));
+
+        // changes which do not apply to the list size
+        assertEquals(Collections.singletonList(Change.reloaded()),
+                ChangeCompactor.compact(Arrays.asList(Change.removed(3), Change.removed(3)), 2));
+    }
+
+    @Test
+    public void testCostThresholds()
+    {
+        // too many changes reload before any compaction is attempted, even those which cancel out
+        assertEquals(Collections.singletonList(Change.reloaded()),
+                ChangeCompactor.compact(Arrays.asList(
+                        Change.inserted(0), Change.removed(0), Change.inserted(0), Change.removed(0)), 3));
+
+        // a few changes to a very large list are not worth replaying
+        List<Change> changes = Arrays.asList(Change.inserted(0), Change.removed(0));
+        int largeSize = (int) ChangeCompactor.MAX_COMPACTION_COST;
+
+        assertEquals(changes, ChangeCompactor.compact(changes, largeSize));
+        assertEquals(Collections.emptyList(), ChangeCompactor.compact(changes, 1000));
+    }
+
+    @Test
+    public void testRandomChangesAreEquivalent()
+    {
+        Random random = new Random(42);
+
+        for (int run = 0; run < 500; ++run) {
+            List<Integer> before = new ArrayList<>();
+            int nextValue = 0;
+
+            for (int i = 0, size = random.nextInt(20); i < size; ++i) {
+                before.add(nextValue++);
+            }
+
+            List<Integer> after = new ArrayList<>(before);
+            List<Change> changes = new ArrayList<>();
+
+            for (int i = 0, count = random.nextInt(30); i < count; ++i) {
+                int operation = random.nextInt(3);
+
+                if (operation == 0 || after.isEmpty()) {
+                    int to = random.nextInt(after.size() + 1);
+
+                    after.add(to, nextValue++);
+                    changes.add(Change.inserted(to));
+                }
+                else if (operation == 1) {
+                    int from = random.nextInt(after.size());
+
+                    after.remove(from);
+                    changes.add(Change.removed(from));
+                }
+                else {
+                    int from = random.nextInt(after.size());
+                    int to = random.nextInt(after.size());
+
+                    after.add(to, after.remove(from));
+                    changes.add(Change.moved(from, to));
+                }
+            }
+
+            if (after.isEmpty()) {
+                // emptying the list is always cheaper as a reload
+                continue;
+            }
+
+            List<Change> compacted = ChangeCompactor.compact(changes, after.size(), Float.MAX_VALUE);
+            List<Integer> result = applyIdentityChanges(before, compacted);
+
+            assertTrue(compacted.size() <= changes.size());
+            assertEquals(after.size(), result.size());
+
+            for (int i = 0; i < after.size(); ++i) {
+                Integer value = after.get(i);
+
+                if (value < before.size()) {
+                    // surviving items must be carried, not re-inserted
+                    assertEquals(value, result.get(i));
+                }
+                else {
+                    assertEquals(null, result.get(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.mproberts.rxtools.list;
+
+import com.github.mproberts.rxtools.map.SubjectMap;
+import io.reactivex.Flowable;
+import io.reactivex.processors.BehaviorProcessor;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CombineLatestFlowableListTest
+{
+    @Test
+    public void testLatestValues()
+    {
+        TestScheduler scheduler = new TestScheduler();
+        BehaviorProcessor<Integer> first = BehaviorProcessor.createDefault(1);
+        PublishProcessor<Integer> second = PublishProcessor.create();
+        SimpleFlowableList<Flowable<Integer>> list = new SimpleFlowableList<>(
+                Arrays.<Flowable<Integer>>asList(first, second));
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+
+        FlowableList.combineLatest(list, scheduler).updates().subscribe(testSubscriber);
+
+        testSubscriber.assertValueCount(1);
+        assertEquals(Arrays.asList(1, null), testSubscriber.values().get(0).list);
+        assertEquals(Collections.singletonList(Change.reloaded()), testSubscriber.values().get(0).changes);
+
+        // a burst of values is coalesced into a single update
+        second.onNext(2);
+        first.onNext(3);
+        second.onNext(4);
+
+        testSubscriber.assertValueCount(1);
+
+        scheduler.triggerActions();
+
+        testSubscriber.assertValueCount(2);
+
+        Update<Integer> update = testSubscriber.values().get(1);
+
+        assertEquals(Arrays.asList(3, 4), update.list);
+        assertEquals(Arrays.asList(
+                Change.removed(0), Change.inserted(0),
+                Change.removed(1), Change.inserted(1)), update.changes);
+
+        scheduler.triggerActions();
+
+        testSubscriber.assertValueCount(2);
+    }
+
+    @Test
+    public void testSubscriptionsFollowChanges()
+    {
+        TestScheduler scheduler = new TestScheduler();
+        BehaviorProcessor<Integer> first = BehaviorProcessor.createDefault(1);
+        BehaviorProcessor<Integer> second = BehaviorProcessor.createDefault(2);
+        BehaviorProcessor<Integer> third = BehaviorProcessor.createDefault(3);
+        SimpleFlowableList<Flowable<Integer>> list = new SimpleFlowableList<>(
+                Arrays.<Flowable<Integer>>asList(first, second));
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+
+        FlowableList.combineLatest(list, scheduler).updates().subscribe(testSubscriber);
+
+        list.add(0, third);
+        list.move(2, 0);
+        list.remove(1);
+
+        testSubscriber.assertValueCount(4);
+
+        assertEquals(Arrays.asList(3, 1, 2), testSubscriber.values().get(1).list);
+        assertEquals(Collections.singletonList(Change.inserted(0)), testSubscriber.values().get(1).changes);
+        assertEquals(Arrays.asList(2, 3, 1), testSubscriber.values().get(2).list);
+        assertEquals(Arrays.asList(2, 1), testSubscriber.values().get(3).list);
+
+        assertFalse(third.hasSubscribers());
+        assertTrue(first.hasSubscribers());
+
+        // a pending value change is carried by the next update of the list
+        first.onNext(10);
+        list.add(third);
+
+        testSubscriber.assertValueCount(5);
+
+        Update<Integer> update = testSubscriber.values().get(4);
+
+        assertEquals(Arrays.asList(2, 10, 3), update.list);
+        assertEquals(Arrays.asList(Change.inserted(2), Change.removed(1), Change.inserted(1)), update.changes);
+
+        scheduler.triggerActions();
+
+        testSubscriber.assertValueCount(5);
+
+        testSubscriber.dispose();
+
+        assertFalse(first.hasSubscribers());
+        assertFalse(second.hasSubscribers());
+        assertFalse(third.hasSubscribers());
+    }
+
+    @Test
+    public void testReloadKeepsSubscriptions()
+    {
+        TestScheduler scheduler = new TestScheduler();
+        BehaviorProcessor<Integer> first = BehaviorProcessor.createDefault(1);
+        BehaviorProcessor<Integer> second = BehaviorProcessor.createDefault(2);
+        PublishProcessor<List<Flowable<Integer>>> lists = PublishProcessor.create();
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+
+        FlowableList.combineLatest(FlowableList.diff(lists), scheduler).updates().subscribe(testSubscriber);
+
+        lists.onNext(Arrays.<Flowable<Integer>>asList(first, second));
+
+        assertEquals(Arrays.asList(1, 2), testSubscriber.values().get(0).list);
+
+        lists.onNext(Collections.<Flowable<Integer>>singletonList(second));
+
+        assertEquals(Collections.singletonList(2), testSubscriber.values().get(1).list);
+        assertFalse(first.hasSubscribers());
+        assertTrue(second.hasSubscribers());
+    }
+
+    @Test
+    public void testSubjectMap()
+    {
+        TestScheduler scheduler = new TestScheduler();
+        SubjectMap<String, Integer> subjectMap = new SubjectMap<>();
+        SimpleFlowableList<String> keys = new SimpleFlowableList<>(Arrays.asList("a", "b"));
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+
+        FlowableList.combineLatest(keys.map(subjectMap), scheduler).updates().subscribe(testSubscriber);
+
+        subjectMap.onNext("a", 1);
+        subjectMap.onNext("b", 2);
+        subjectMap.onNext("a", 3);
+
+        scheduler.triggerActions();
+
+        testSubscriber.assertValueCount(2);
+        assertEquals(Arrays.asList(3, 2), testSubscriber.values().get(1).list);
+    }
+}
@@ -1,7 +1,16 @@
 package com.github.mproberts.rxtools.list;
 
+import org.junit.Test;
+
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 public class ConcatListTest extends ListImplementationTest
 {
@@ -22,4 +31,60 @@ public class ConcatListTest extends ListImplementationTest
     {
         return new ConcatList();
     }
+
+    @Test
+    public void testManySections()
+    {
+        List[] sections = new List[1000];
+        List<Integer> comparison = new ArrayList<>();
+
+        for (int i = 0; i < sections.length; ++i) {
+            List<Integer> section = i % 2 == 0 ? new ArrayList<Integer>() : new LinkedList<Integer>();
+
+            // every third section is left empty
+            for (int j = 0; j < i % 3; ++j) {
+                section.add(comparison.size());
+                comparison.add(comparison.size());
+            }
+
+            sections[i] = section;
+        }
+
+        ConcatList list = new ConcatList(sections);
+
+        assertEquals(comparison.size(), list.size());
+
+        for (int i = 0; i < comparison.size(); ++i) {
+            assertEquals(comparison.get(i), list.get(i));
+        }
+
+        assertEquals(comparison, list);
+
+        ListIterator iterator = list.listIterator(list.size());
+
+        for (int i = comparison.size() - 1; i >= 0; --i) {
+            assertEquals(i, iterator.previousIndex());
+            assertEquals(comparison.get(i), iterator.previous());
+        }
+
+        assertFalse(iterator.hasPrevious());
+    }
+
+    @Test
+    public void testIteratorDirectionChange()
+    {
+        ListIterator iterator = new ConcatList(
+                new LinkedList<>(Arrays.asList(1, 2)),
+                Collections.emptyList(),
+                new LinkedList<>(Arrays.asList(3))).listIterator();
+
+        assertEquals(1, iterator.next());
+        assertEquals(2, iterator.next());
+        assertEquals(3, iterator.next());
+        assertEquals(3, iterator.previous());
+        assertEquals(2, iterator.previous());
+        assertEquals(2, iterator.next());
+        assertEquals(3, iterator.next());
+        assertFalse(iterator.hasNext());
+    }
 }
@@ -1,5 +1,6 @@
 package com.github.mproberts.rxtools.list;
 
+import io.reactivex.functions.Action;
 import io.reactivex.processors.BehaviorProcessor;
 import io.reactivex.subscribers.TestSubscriber;
 import org.junit.Test;
@@ -7,9 +8,11 @@ import org.junit.Test;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 
 public class DiffFlowableListTest
 {
@@ -98,4 +101,90 @@ public class DiffFlowableListTest
             assertNotEquals(change.type, Change.Type.Moved);
         }
     }
+
+    @Test
+    public void testDiffAlgorithm()
+    {
+        BehaviorProcessor<List<Integer>> processor = BehaviorProcessor.create();
+        FlowableList<Integer> list = FlowableList.diff(processor, true, Diff.PATIENCE);
+        TestSubscriber<Update<Integer>> test = list.updates().test();
+
+        processor.onNext(Arrays.asList(1, 2, 3, 4));
+        processor.onNext(Arrays.asList(4, 1, 2, 5));
+
+        Update<Integer> firstUpdate = test.values().get(0);
+        Update<Integer> secondUpdate = test.values().get(1);
+
+        assertEquals(Arrays.asList(4, 1, 2, 5), secondUpdate.list);
+        assertEquals(Arrays.asList(
+                4, 1, 2, 5),
+                TestTools.applyChanges(firstUpdate.list, secondUpdate.list, secondUpdate.changes));
+    }
+
+    @Test
+    public void testReloadWhenDiffAbandoned()
+    {
+        BehaviorProcessor<List<Integer>> processor = BehaviorProcessor.create();
+        DifferentialFlowableList<Integer> list = new DifferentialFlowableList<>(processor, true, Diff.myers(16));
+        TestSubscriber<Update<Integer>> test = list.updates().test();
+
+        processor.onNext(Arrays.asList(1, 2, 3, 4));
+        processor.onNext(Arrays.asList(5, 6, 7, 8));
+
+        assertEquals(Collections.singletonList(Change.reloaded()), test.values().get(1).changes);
+        assertEquals(Arrays.asList(5, 6, 7, 8), test.values().get(1).list);
+        assertEquals(1, list.getFallbackCount());
+
+        processor.onNext(Arrays.asList(5, 6, 7));
+
+        assertEquals(Collections.singletonList(Change.removed(3)), test.values().get(2).changes);
+        assertEquals(1, list.getFallbackCount());
+    }
+
+    @Test
+    public void testFallbackCallback()
+    {
+        final AtomicInteger fallbacks = new AtomicInteger();
+        BehaviorProcessor<List<Integer>> processor = BehaviorProcessor.create();
+        FlowableList<Integer> list = FlowableList.diff(processor, true, Diff.myers(16), new Action() {
+            @Override
+            public void run()
+            {
+                fallbacks.incrementAndGet();
+            }
+        });
+        TestSubscriber<Update<Integer>> test = list.updates().test();
+
+        processor.onNext(Arrays.asList(1, 2, 3, 4));
+        processor.onNext(Arrays.asList(5, 6, 7, 8));
+
+        assertEquals(Collections.singletonList(Change.reloaded()), test.values().get(1).changes);
+        assertEquals(1, fallbacks.get());
+
+        processor.onNext(Arrays.asList(5, 6, 7));
+
+        assertEquals(1, fallbacks.get());
+    }
+
+    @Test
+    public void testImmutableListsPassedThrough()
+    {
+        ImmutableList<Integer> list1 = ImmutableList.copyOf(Arrays.asList(1, 2, 3));
+        ImmutableList<Integer> list2 = ImmutableList.copyOf(Arrays.asList(1, 3, 4));
+
+        BehaviorProcessor<List<Integer>> processor = BehaviorProcessor.create();
+        FlowableList<Integer> list = FlowableList.diff(processor);
+        TestSubscriber<Update<Integer>> test = list.updates().test();
+
+        processor.onNext(list1);
+        processor.onNext(list2);
+
+        assertSame(list1, test.values().get(0).list);
+        assertSame(list2, test.values().get(1).list);
+
+        // the replayed state is already immutable and is shared rather than copied
+        TestSubscriber<Update<Integer>> replayed = list.updates().test();
+
+        assertSame(list2, replayed.values().get(0).list);
+    }
 }
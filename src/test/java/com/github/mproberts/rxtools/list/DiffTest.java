@@ -0,0 +1,299 @@
+package com.github.mproberts.rxtools.list;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DiffTest
+{
+    private static List<Integer> shuffledEdit(List<Integer> before, Random random, int edits)
+    {
+        List<Integer> after = new ArrayList<>(before);
+
+        for (int i = 0; i < edits; ++i) {
+            switch (random.nextInt(3)) {
+                case 0:
+                    after.add(random.nextInt(after.size() + 1), -random.nextInt(1000));
+                    break;
+                case 1:
+                    if (!after.isEmpty()) {
+                        after.remove(random.nextInt(after.size()));
+                    }
+                    break;
+                case 2:
+                    if (!after.isEmpty()) {
+                        after.add(random.nextInt(after.size()), after.remove(random.nextInt(after.size())));
+                    }
+                    break;
+            }
+        }
+
+        return after;
+    }
+
+    private static void assertAppliesTo(List<Integer> before, List<Integer> after, List<Change> changes)
+    {
+        List<Integer> target = new ArrayList<>(before);
+
+        for (Change change : changes) {
+            switch (change.type) {
+                case Inserted:
+                    target.add(change.to, null);
+                    break;
+                case Moved:
+                    target.add(change.to, target.remove(change.from));
+                    break;
+                case Removed:
+                    target.remove(change.from);
+                    break;
+            }
+        }
+
+        assertEquals(after.size(), target.size());
+
+        for (int i = 0; i < target.size(); ++i) {
+            if (target.get(i) != null) {
+                assertEquals(after.get(i), target.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testRepeatedItems()
+    {
+        List<Integer> before = Arrays.asList(0, 4, 0);
+        List<Integer> after = Collections.singletonList(0);
+
+        assertAppliesTo(before, after, Diff.calculateDiff(before, after, false));
+        assertAppliesTo(before, after, Diff.calculateDiff(before, after, true));
+
+        before = Arrays.asList(4, 0, 1, 0);
+        after = Arrays.asList(0, 4);
+
+        assertAppliesTo(before, after, Diff.calculateDiff(before, after, true));
+
+        Random random = new Random(42);
+
+        for (int run = 0; run < 1000; ++run) {
+            List<Integer> randomBefore = new ArrayList<>();
+            List<Integer> randomAfter = new ArrayList<>();
+
+            for (int i = random.nextInt(12); i > 0; --i) {
+                randomBefore.add(random.nextInt(4));
+            }
+
+            for (int i = random.nextInt(12); i > 0; --i) {
+                randomAfter.add(random.nextInt(4));
+            }
+
+            assertAppliesTo(randomBefore, randomAfter, Diff.calculateDiff(randomBefore, randomAfter, false));
+            assertAppliesTo(randomBefore, randomAfter, Diff.calculateDiff(randomBefore, randomAfter, true));
+        }
+    }
+
+    @Test
+    public void testParallelDiff()
+    {
+        Random random = new Random(1234);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            for (int run = 0; run < 5; ++run) {
+                List<Integer> before = new ArrayList<>();
+
+                for (int i = 0; i < Diff.PARALLEL_THRESHOLD * 2; ++i) {
+                    // a mix of unique and repeated items
+                    before.add(i % 7 == 0 ? i % 50 : i);
+                }
+
+                List<Integer> after = shuffledEdit(before, random, 500);
+
+                assertAppliesTo(before, after, Diff.calculateDiff(before, after, true, pool));
+                assertAppliesTo(before, after, Diff.calculateDiff(before, after, false, pool));
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelDiffDetectsMoves()
+    {
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            List<Integer> before = new ArrayList<>();
+
+            for (int i = 0; i < Diff.PARALLEL_THRESHOLD; ++i) {
+                before.add(i);
+            }
+
+            List<Integer> after = new ArrayList<>(before);
+
+            // moves the last item to the front, across every anchor in between
+            after.add(0, after.remove(after.size() - 1));
+
+            List<Change> changes = Diff.calculateDiff(before, after, true, pool);
+
+            assertEquals(Collections.singletonList(Change.moved(before.size() - 1, 0)), changes);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelDiffWithoutAnchors()
+    {
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        try {
+            List<Integer> before = new ArrayList<>();
+            List<Integer> after = new ArrayList<>();
+
+            for (int i = 0; i < Diff.PARALLEL_THRESHOLD; ++i) {
+                before.add(i % 10);
+                after.add((i + 3) % 10);
+            }
+
+            List<Change> changes = Diff.calculateDiff(before, after, true, pool);
+
+            assertTrue(changes.size() > 0);
+            assertAppliesTo(before, after, changes);
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testPatienceDiff()
+    {
+        Random random = new Random(99);
+
+        for (int run = 0; run < 1000; ++run) {
+            List<Integer> before = new ArrayList<>();
+            List<Integer> after;
+
+            for (int i = random.nextInt(40); i > 0; --i) {
+                before.add(random.nextInt(20));
+            }
+
+            if (run % 2 == 0) {
+                after = shuffledEdit(before, random, random.nextInt(8));
+            }
+            else {
+                after = new ArrayList<>();
+
+                for (int i = random.nextInt(40); i > 0; --i) {
+                    after.add(random.nextInt(20));
+                }
+            }
+
+            assertAppliesTo(before, after, Diff.PATIENCE.calculateDiff(before, after, false));
+            assertAppliesTo(before, after, Diff.PATIENCE.calculateDiff(before, after, true));
+        }
+    }
+
+    @Test
+    public void testPatienceDiffAnchorsOnUniqueItems()
+    {
+        // the unique items stay in place and the new block is inserted whole
+        List<String> before = Arrays.asList("a", "{", "}", "b");
+        List<String> after = Arrays.asList("a", "{", "}", "x", "{", "}", "b");
+
+        assertEquals(
+                Arrays.asList(Change.inserted(3), Change.inserted(4), Change.inserted(5)),
+                Diff.PATIENCE.calculateDiff(before, after, false));
+    }
+
+    @Test
+    public void testPatienceDiffLargeDissimilar()
+    {
+        List<Integer> before = new ArrayList<>();
+        List<Integer> after = new ArrayList<>();
+
+        for (int i = 0; i < Diff.PATIENCE_FALLBACK_LIMIT * 4; ++i) {
+            before.add(i % 3);
+            after.add(i % 3 + 3);
+        }
+
+        List<Change> changes = Diff.PATIENCE.calculateDiff(before, after, false);
+
+        assertEquals(before.size() + after.size(), changes.size());
+        assertAppliesTo(before, after, changes);
+    }
+
+    @Test
+    public void testComparisonBudget()
+    {
+        List<Integer> before = new ArrayList<>();
+        List<Integer> after = new ArrayList<>();
+
+        for (int i = 0; i < 1000; ++i) {
+            before.add(i);
+            after.add(-i - 1);
+        }
+
+        assertNull(Diff.calculateDiff(before, after, true, 10000));
+        assertNull(Diff.calculatePatienceDiff(before, after, true, 10));
+        assertNull(Diff.myers(10000).calculateDiff(before, after, false));
+
+        List<Integer> small = Arrays.asList(1, 2, 3);
+        List<Integer> smallAfter = Arrays.asList(3, 1, 2);
+
+        assertEquals(
+                Diff.calculateDiff(small, smallAfter, true),
+                Diff.calculateDiff(small, smallAfter, true, 1000));
+    }
+
+    @Test
+    public void testWorkspaceReuse()
+    {
+        Random random = new Random(7);
+        Diff.Workspace workspace = new Diff.Workspace();
+        List<Integer> before = new ArrayList<>();
+
+        for (int i = 0; i < 200; ++i) {
+            before.add(random.nextInt(50));
+        }
+
+        List<Integer> after = shuffledEdit(before, random, 20);
+
+        assertEquals(
+                Diff.calculateDiff(before, after, true),
+                Diff.calculateDiff(before, after, true, workspace));
+
+        int capacity = workspace.capacity();
+
+        // smaller diffs reuse the same arrays
+        for (int run = 0; run < 10; ++run) {
+            List<Integer> smallBefore = before.subList(0, 100);
+            List<Integer> smallAfter = shuffledEdit(smallBefore, random, 10);
+
+            assertEquals(
+                    Diff.calculateDiff(smallBefore, smallAfter, true),
+                    Diff.calculateDiff(smallBefore, smallAfter, true, workspace));
+            assertEquals(capacity, workspace.capacity());
+        }
+
+        // a diff started while the workspace is busy allocates its own arrays
+        assertTrue(workspace.acquire());
+
+        assertEquals(
+                Diff.calculateDiff(after, before, true),
+                Diff.calculateDiff(after, before, true, workspace));
+
+        workspace.release();
+    }
+}
@@ -1,6 +1,9 @@
 package com.github.mproberts.rxtools.list;
 
 import io.reactivex.Flowable;
+import io.reactivex.functions.Action;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.schedulers.TestScheduler;
 import io.reactivex.subscribers.TestSubscriber;
 import org.junit.Test;
 
@@ -8,6 +11,8 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class FlatMapFlowableListTest
 {
@@ -39,4 +44,149 @@ public class FlatMapFlowableListTest
         assertEquals(Arrays.asList(Change.reloaded()), onNextEvents.get(2).changes);
         assertEquals(Arrays.asList(6, 7, 8), onNextEvents.get(2).list);
     }
+
+    @Test
+    public void testSwitchFlatten()
+    {
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+
+        SimpleFlowableList<Integer> list1 = new SimpleFlowableList<>(Arrays.asList(1, 2, 3));
+        SimpleFlowableList<Integer> list2 = new SimpleFlowableList<>(Arrays.asList(2, 3, 4));
+        SimpleFlowableList<Integer> list3 = new SimpleFlowableList<>(Arrays.asList(2, 3, 4, 5));
+
+        PublishProcessor<FlowableList<Integer>> lists = PublishProcessor.create();
+
+        FlowableList<Integer> flattened = FlowableList.switchFlatten(lists);
+
+        flattened.updates().subscribe(testSubscriber);
+
+        lists.onNext(list1);
+
+        testSubscriber.assertValueCount(1);
+        assertEquals(Arrays.asList(Change.reloaded()), testSubscriber.values().get(0).changes);
+        assertEquals(Arrays.asList(1, 2, 3), testSubscriber.values().get(0).list);
+
+        lists.onNext(list2);
+
+        testSubscriber.assertValueCount(2);
+        assertEquals(Arrays.asList(2, 3, 4), testSubscriber.values().get(1).list);
+        assertEquals(Arrays.asList(Change.inserted(3), Change.removed(0)), testSubscriber.values().get(1).changes);
+
+        // the previous list is no longer followed
+        list1.add(5);
+
+        testSubscriber.assertValueCount(2);
+
+        list2.add(5);
+
+        testSubscriber.assertValueCount(3);
+        assertEquals(Arrays.asList(Change.inserted(3)), testSubscriber.values().get(2).changes);
+
+        // switching to an identical list sends its state without any changes
+        lists.onNext(list3);
+
+        testSubscriber.assertValueCount(4);
+        assertTrue(testSubscriber.values().get(3).changes.isEmpty());
+
+        list3.add(6);
+
+        testSubscriber.assertValueCount(5);
+        assertEquals(Arrays.asList(2, 3, 4, 5, 6), testSubscriber.values().get(4).list);
+        assertEquals(Arrays.asList(Change.inserted(4)), testSubscriber.values().get(4).changes);
+    }
+
+    @Test
+    public void testSwitchFlattenCancelsPrevious()
+    {
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+        final boolean[] cancelled = new boolean[1];
+
+        FlowableList<Integer> list1 = new FlowableList<Integer>() {
+            @Override
+            public Flowable<Update<Integer>> updates()
+            {
+                return Flowable.<Update<Integer>>never()
+                        .startWith(new Update<>(Arrays.asList(1), Change.reloaded()))
+                        .doOnCancel(new Action() {
+                            @Override
+                            public void run()
+                            {
+                                cancelled[0] = true;
+                            }
+                        });
+            }
+        };
+
+        PublishProcessor<FlowableList<Integer>> lists = PublishProcessor.create();
+
+        FlowableList.switchFlatten(lists).updates().subscribe(testSubscriber);
+
+        lists.onNext(list1);
+
+        assertFalse(cancelled[0]);
+
+        lists.onNext(FlowableList.of(1, 2));
+
+        assertTrue(cancelled[0]);
+        assertEquals(Arrays.asList(Change.inserted(1)), testSubscriber.values().get(1).changes);
+    }
+
+    @Test
+    public void testSwitchFlattenDiffOnScheduler()
+    {
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+        TestScheduler testScheduler = new TestScheduler();
+
+        SimpleFlowableList<Integer> list1 = new SimpleFlowableList<>(Arrays.asList(1, 2, 3));
+        SimpleFlowableList<Integer> list2 = new SimpleFlowableList<>(Arrays.asList(1, 2, 3, 4));
+        SimpleFlowableList<Integer> list3 = new SimpleFlowableList<>(Arrays.asList(5, 6, 7, 8));
+
+        PublishProcessor<FlowableList<Integer>> lists = PublishProcessor.create();
+
+        FlowableList.switchFlatten(lists, testScheduler, 8).updates().subscribe(testSubscriber);
+
+        lists.onNext(list1);
+        testScheduler.triggerActions();
+
+        testSubscriber.assertValueCount(1);
+        assertEquals(Arrays.asList(Change.reloaded()), testSubscriber.values().get(0).changes);
+
+        lists.onNext(list2);
+        list2.add(5);
+
+        // the diff is pending on the scheduler, later updates wait behind it
+        testSubscriber.assertValueCount(1);
+
+        testScheduler.triggerActions();
+
+        testSubscriber.assertValueCount(3);
+        assertEquals(Arrays.asList(Change.inserted(3)), testSubscriber.values().get(1).changes);
+        assertEquals(Arrays.asList(Change.inserted(4)), testSubscriber.values().get(2).changes);
+
+        // too large to diff, passes the reload through
+        lists.onNext(list3);
+        testScheduler.triggerActions();
+
+        testSubscriber.assertValueCount(4);
+        assertEquals(Arrays.asList(Change.reloaded()), testSubscriber.values().get(3).changes);
+        assertEquals(Arrays.asList(5, 6, 7, 8), testSubscriber.values().get(3).list);
+    }
+
+    @Test
+    public void testSwitchFlattenToEmptyList()
+    {
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+        PublishProcessor<FlowableList<Integer>> lists = PublishProcessor.create();
+
+        FlowableList.switchFlatten(lists).updates().subscribe(testSubscriber);
+
+        lists.onNext(new SimpleFlowableList<Integer>());
+        lists.onNext(new SimpleFlowableList<Integer>());
+
+        // the second list matches the first but its state is still sent
+        testSubscriber.assertValueCount(2);
+        assertEquals(Arrays.asList(Change.reloaded()), testSubscriber.values().get(0).changes);
+        assertTrue(testSubscriber.values().get(1).changes.isEmpty());
+        assertTrue(testSubscriber.values().get(1).list.isEmpty());
+    }
 }
@@ -0,0 +1,149 @@
+package com.github.mproberts.rxtools.list;
+
+import io.reactivex.functions.Consumer;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ImmutableListTest
+{
+    @Test
+    public void testCopyOf()
+    {
+        List<Integer> source = new ArrayList<>(Arrays.asList(1, 2, 3));
+        ImmutableList<Integer> list = ImmutableList.copyOf(source);
+
+        source.set(0, 10);
+
+        assertEquals(Arrays.asList(1, 2, 3), list);
+        assertSame(list, ImmutableList.copyOf(list));
+        assertSame(ImmutableList.empty(), ImmutableList.copyOf(new ArrayList<Integer>()));
+    }
+
+    @Test
+    public void testSearch()
+    {
+        ImmutableList<String> list = ImmutableList.copyOf(Arrays.asList("a", null, "b", "a"));
+
+        assertEquals(0, list.indexOf("a"));
+        assertEquals(3, list.lastIndexOf("a"));
+        assertEquals(1, list.indexOf(null));
+        assertEquals(-1, list.indexOf("c"));
+        assertTrue(list.contains("b"));
+        assertFalse(list.contains("c"));
+    }
+
+    @Test
+    public void testSubList()
+    {
+        ImmutableList<Integer> list = ImmutableList.copyOf(Arrays.asList(1, 2, 3, 4, 5));
+        List<Integer> subList = list.subList(1, 4);
+
+        assertTrue(subList instanceof ImmutableList);
+        assertEquals(Arrays.asList(2, 3, 4), subList);
+        assertEquals(Arrays.asList(3, 4), subList.subList(1, 3));
+        assertEquals(Arrays.asList(2, 3, 4).hashCode(), subList.hashCode());
+        assertEquals(1, subList.indexOf(3));
+        assertEquals(-1, subList.indexOf(1));
+        assertSame(list, list.subList(0, 5));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSubListGetOutOfRange()
+    {
+        ImmutableList.copyOf(Arrays.asList(1, 2, 3, 4, 5)).subList(1, 3).get(2);
+    }
+
+    @Test
+    public void testEqualsAndHashCode()
+    {
+        ImmutableList<Integer> list = ImmutableList.copyOf(Arrays.asList(1, 2, 3));
+        ImmutableList<Integer> other = ImmutableList.copyOf(Arrays.asList(1, 2, 4));
+
+        assertEquals(Arrays.asList(1, 2, 3).hashCode(), list.hashCode());
+        assertEquals(list, Arrays.asList(1, 2, 3));
+        assertEquals(Arrays.asList(1, 2, 3), list);
+        assertFalse(list.equals(other));
+        assertFalse(list.equals(other.subList(0, 2)));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAdd()
+    {
+        ImmutableList.copyOf(Arrays.asList(1, 2, 3)).add(4);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSet()
+    {
+        ImmutableList.copyOf(Arrays.asList(1, 2, 3)).set(0, 4);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRemoveAllEmpty()
+    {
+        ImmutableList.copyOf(Arrays.asList(1, 2, 3)).removeAll(new ArrayList<Integer>());
+    }
+
+    @Test
+    public void testBuilderSharesArray()
+    {
+        ImmutableList.Builder<Integer> builder = new ImmutableList.Builder<>(Arrays.asList(1, 2, 3));
+
+        builder.add(4);
+        builder.add(0, 0);
+        builder.remove(2);
+        builder.set(1, 10);
+
+        ImmutableList<Integer> list = builder.build();
+
+        assertEquals(Arrays.asList(0, 10, 3, 4), list);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBuilderNotModifiableOnceBuilt()
+    {
+        ImmutableList.Builder<Integer> builder = new ImmutableList.Builder<>(Arrays.asList(1, 2, 3));
+
+        builder.build();
+        builder.add(4);
+    }
+
+    @Test
+    public void testSimpleListEmitsImmutableLists()
+    {
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>(Arrays.asList(1, 2, 3));
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+
+        list.updates().subscribe(testSubscriber);
+
+        list.add(4);
+        list.remove(Integer.valueOf(7));
+        list.batch(new Consumer<SimpleFlowableList<Integer>>() {
+            @Override
+            public void accept(SimpleFlowableList<Integer> list)
+            {
+                list.remove(Integer.valueOf(7));
+                list.move(0, 0);
+                list.add(5);
+            }
+        });
+
+        testSubscriber.assertValueCount(3);
+
+        for (Update<Integer> update : testSubscriber.values()) {
+            assertTrue(update.list instanceof ImmutableList);
+        }
+
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), testSubscriber.values().get(2).list);
+        assertEquals(Arrays.asList(Change.inserted(4)), testSubscriber.values().get(2).changes);
+    }
+}
@@ -2,10 +2,12 @@ package com.github.mproberts.rxtools.list;
 
 import io.reactivex.functions.Consumer;
 import io.reactivex.functions.Function;
+import io.reactivex.schedulers.TestScheduler;
 import io.reactivex.subscribers.TestSubscriber;
 import org.junit.Test;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 
@@ -138,4 +140,149 @@ public class PrefetchFlowableListTest
         assertEquals(Arrays.asList(4, 5, 6, 7, 8, 9, 10), fetches);
         assertEquals(Arrays.asList(5, 6, 7, 8, 10), prefetches);
     }
+
+    @Test
+    public void testDispatchedPrefetch()
+    {
+        final List<List<Integer>> prefetches = new ArrayList<>();
+        TestScheduler testScheduler = new TestScheduler();
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+
+        FlowableList<Integer> prefetchList = list.prefetch(1, 2, 50, TimeUnit.MILLISECONDS, testScheduler,
+                new Consumer<Collection<Integer>>() {
+                    @Override
+                    public void accept(Collection<Integer> integer) throws Exception {
+                        prefetches.add(new ArrayList<>(integer));
+                    }
+                });
+
+        prefetchList.updates().subscribe(testSubscriber);
+
+        List<Integer> list1 = testSubscriber.values().get(0).list;
+
+        list1.get(3);
+        list1.get(4);
+        list1.get(5);
+
+        // nothing is fetched on the calling thread
+        assertEquals(Collections.emptyList(), prefetches);
+
+        testScheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        // overlapping windows are coalesced into a single call
+        assertEquals(Collections.singletonList(Arrays.asList(3, 5, 6, 4, 7, 8)), prefetches);
+
+        list1.get(4);
+        list1.get(1);
+
+        testScheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        // only items entering the window for the first time are forwarded
+        assertEquals(2, prefetches.size());
+        assertEquals(Collections.singletonList(1), prefetches.get(1));
+
+        list1.get(3);
+
+        testScheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        assertEquals(2, prefetches.size());
+    }
+
+    @Test
+    public void testAdaptivePrefetch()
+    {
+        final List<List<Integer>> prefetches = new ArrayList<>();
+        TestScheduler testScheduler = new TestScheduler();
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+        List<Integer> values = new ArrayList<>();
+
+        for (int i = 1; i <= 30; ++i) {
+            values.add(i);
+        }
+
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>(values);
+
+        FlowableList<Integer> prefetchList = list.adaptivePrefetch(2, 2, 6, testScheduler,
+                new Consumer<Collection<Integer>>() {
+                    @Override
+                    public void accept(Collection<Integer> integer) throws Exception {
+                        prefetches.add(new ArrayList<>(integer));
+                    }
+                });
+
+        prefetchList.updates().subscribe(testSubscriber);
+
+        List<Integer> list1 = testSubscriber.values().get(0).list;
+
+        list1.get(10);
+        assertEquals(Arrays.asList(10, 9, 12, 13), prefetches.get(prefetches.size() - 1));
+
+        // travelling forward grows the lookahead and shrinks the lookbehind
+        list1.get(11);
+        assertEquals(Arrays.asList(11, 13, 14, 15), prefetches.get(prefetches.size() - 1));
+
+        list1.get(12);
+        assertEquals(Arrays.asList(14, 15, 16, 17), prefetches.get(prefetches.size() - 1));
+
+        list1.get(14);
+        list1.get(16);
+
+        // capped at the maximum
+        assertEquals(Arrays.asList(18, 19, 20, 21, 22, 23), prefetches.get(prefetches.size() - 1));
+
+        // reversing direction grows the lookbehind instead
+        list1.get(15);
+        assertEquals(Arrays.asList(15, 14, 13, 17), prefetches.get(prefetches.size() - 1));
+
+        // a pause returns to the base distances
+        testScheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        list1.get(20);
+        assertEquals(Arrays.asList(20, 19, 22, 23), prefetches.get(prefetches.size() - 1));
+    }
+
+    @Test
+    public void testAdaptivePrefetchSubList()
+    {
+        final List<List<Integer>> prefetches = new ArrayList<>();
+        TestScheduler testScheduler = new TestScheduler();
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+        List<Integer> values = new ArrayList<>();
+
+        for (int i = 1; i <= 30; ++i) {
+            values.add(i);
+        }
+
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>(values);
+
+        FlowableList<Integer> prefetchList = list.adaptivePrefetch(2, 2, 6, testScheduler,
+                new Consumer<Collection<Integer>>() {
+                    @Override
+                    public void accept(Collection<Integer> integer) throws Exception {
+                        prefetches.add(new ArrayList<>(integer));
+                    }
+                });
+
+        prefetchList.updates().subscribe(testSubscriber);
+
+        List<Integer> list1 = testSubscriber.values().get(0).list;
+        List<Integer> subList = list1.subList(10, 30);
+
+        list1.get(10);
+        list1.get(11);
+
+        // the sublist continues the travel through the whole list rather than jumping to its start
+        subList.get(2);
+        assertEquals(Arrays.asList(14, 15, 16, 17), prefetches.get(prefetches.size() - 1));
+
+        subList.get(3);
+        list1.get(14);
+        assertEquals(Arrays.asList(16, 17, 18, 19, 20, 21), prefetches.get(prefetches.size() - 1));
+
+        // nested sublists report their accesses in the same way
+        subList.subList(5, 20).get(0);
+        assertEquals(Arrays.asList(17, 18, 19, 20, 21, 22), prefetches.get(prefetches.size() - 1));
+    }
 }
@@ -0,0 +1,184 @@
+package com.github.mproberts.rxtools.list;
+
+import io.reactivex.Flowable;
+import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveFlowableListTest
+{
+    @Test
+    public void testLongList()
+    {
+        LongList list = LongList.of(1, 2, 3, 2);
+
+        assertEquals(Arrays.asList(1L, 2L, 3L, 2L), list);
+        assertEquals(Arrays.asList(1L, 2L, 3L, 2L).hashCode(), list.hashCode());
+        assertEquals(LongList.of(2, 3), list.subList(1, 3));
+        assertEquals(1, list.indexOf(2L));
+        assertEquals(3, list.lastIndexOf(2L));
+        assertEquals(-1, list.indexOf(Integer.valueOf(2)));
+        assertFalse(list.contains(4L));
+        assertSame(list, LongList.copyOf(list));
+        assertEquals(list, LongList.copyOf(Arrays.asList(1L, 2L, 3L, 2L)));
+    }
+
+    @Test
+    public void testIntList()
+    {
+        IntList list = IntList.of(1, 2, 3, 2);
+
+        assertEquals(Arrays.asList(1, 2, 3, 2), list);
+        assertEquals(Arrays.asList(1, 2, 3, 2).hashCode(), list.hashCode());
+        assertEquals(IntList.of(3, 2), list.subList(2, 4));
+        assertEquals(2, list.indexOf(3));
+        assertEquals(-1, list.indexOf(3L));
+        assertTrue(list.contains(1));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testLongListNotModifiable()
+    {
+        LongList.of(1, 2, 3).add(4L);
+    }
+
+    @Test
+    public void testLongFlowableList()
+    {
+        LongFlowableList list = new LongFlowableList(10, 20, 30);
+        TestSubscriber<Update<Long>> testSubscriber = new TestSubscriber<>();
+
+        list.updates().subscribe(testSubscriber);
+
+        list.add(40);
+        list.add(0, 5);
+        list.move(0, 4);
+        list.remove(0);
+        list.removeValue(99);
+        list.removeValue(40);
+        list.addAll(50, 60);
+
+        testSubscriber.assertValueCount(7);
+
+        List<Update<Long>> values = testSubscriber.values();
+
+        assertEquals(Collections.singletonList(Change.reloaded()), values.get(0).changes);
+        assertEquals(Collections.singletonList(Change.inserted(3)), values.get(1).changes);
+        assertEquals(Collections.singletonList(Change.inserted(0)), values.get(2).changes);
+        assertEquals(Collections.singletonList(Change.moved(0, 4)), values.get(3).changes);
+        assertEquals(Collections.singletonList(Change.removed(0)), values.get(4).changes);
+        assertEquals(Collections.singletonList(Change.removed(2)), values.get(5).changes);
+        assertEquals(Arrays.asList(Change.inserted(3), Change.inserted(4)), values.get(6).changes);
+
+        for (Update<Long> update : values) {
+            assertTrue(update.list instanceof LongList);
+        }
+
+        assertEquals(LongList.of(20, 30, 5, 50, 60), values.get(6).list);
+    }
+
+    @Test
+    public void testIntFlowableListBatch()
+    {
+        IntFlowableList list = new IntFlowableList(1, 2, 3);
+        TestSubscriber<Update<Integer>> testSubscriber = new TestSubscriber<>();
+
+        list.updates().subscribe(testSubscriber);
+
+        list.batch(new Consumer<IntFlowableList>() {
+            @Override
+            public void accept(IntFlowableList list)
+            {
+                list.removeValue(2);
+                list.removeValue(7);
+                list.add(4);
+                list.move(0, 0);
+            }
+        });
+
+        testSubscriber.assertValueCount(2);
+
+        Update<Integer> update = testSubscriber.values().get(1);
+
+        assertTrue(update.list instanceof IntList);
+        assertEquals(IntList.of(1, 3, 4), update.list);
+        assertEquals(Arrays.asList(Change.removed(1), Change.inserted(2)), update.changes);
+    }
+
+    @Test
+    public void testPrimitiveDiff()
+    {
+        LongList before = LongList.of(1000, 2000, 3000, 4000);
+        LongList after = LongList.of(4000, 1000, 3000, 5000);
+        List<Long> boxedBefore = Arrays.asList(1000L, 2000L, 3000L, 4000L);
+        List<Long> boxedAfter = Arrays.asList(4000L, 1000L, 3000L, 5000L);
+
+        assertEquals(
+                Diff.calculateDiff(boxedBefore, boxedAfter, true),
+                Diff.calculateDiff(before, after, true));
+
+        IntList intBefore = IntList.of(1, 2, 3);
+        IntList intAfter = IntList.of(3, 1, 2);
+
+        assertEquals(
+                Diff.calculateDiff(Arrays.asList(1, 2, 3), Arrays.asList(3, 1, 2), true),
+                Diff.calculateDiff(intBefore, intAfter, true));
+    }
+
+    @Test
+    public void testDifferentialLongFlowableList()
+    {
+        LongFlowableList source = new LongFlowableList(1000, 2000, 3000, 4000);
+        final List<Boolean> isPrimitive = new ArrayList<>();
+
+        Flowable<List<Long>> lists = source.updates().map(new Function<Update<Long>, List<Long>>() {
+            @Override
+            public List<Long> apply(Update<Long> update)
+            {
+                return update.list;
+            }
+        });
+
+        FlowableList<Long> list = FlowableList.diff(lists, true, new DiffAlgorithm() {
+            @Override
+            public <T> List<Change> calculateDiff(List<T> original, List<T> updated, boolean detectMoves)
+            {
+                isPrimitive.add(original instanceof LongList && updated instanceof LongList);
+
+                return Diff.MYERS.calculateDiff(original, updated, detectMoves);
+            }
+        });
+        TestSubscriber<Update<Long>> testSubscriber = list.updates().test();
+
+        source.removeValue(2000);
+        source.add(0, 5000);
+
+        List<Update<Long>> values = testSubscriber.values();
+
+        testSubscriber.assertValueCount(3);
+        assertEquals(Arrays.asList(true, true), isPrimitive);
+        assertEquals(LongList.of(5000, 1000, 3000, 4000), values.get(2).list);
+        assertEquals(values.get(2).list,
+                TestTools.applyChanges(values.get(1).list, values.get(2).list, values.get(2).changes));
+
+        for (Update<Long> update : values) {
+            assertTrue(update.list instanceof LongList);
+        }
+
+        // the replayed state keeps its primitive representation
+        TestSubscriber<Update<Long>> replayed = list.updates().test();
+
+        assertTrue(replayed.values().get(0).list instanceof LongList);
+    }
+}
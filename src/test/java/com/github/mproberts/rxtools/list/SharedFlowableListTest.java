@@ -0,0 +1,103 @@
+package com.github.mproberts.rxtools.list;
+
+import io.reactivex.functions.Function;
+import io.reactivex.processors.BehaviorProcessor;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SharedFlowableListTest
+{
+    @Test
+    public void testSingleUpstreamSubscription()
+    {
+        final AtomicInteger mappingCount = new AtomicInteger();
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>(Arrays.asList(1, 2, 3));
+
+        FlowableList<Integer> mappedList = FlowableList.diff(list.updates()
+                .map(new Function<Update<Integer>, List<Integer>>() {
+                    @Override
+                    public List<Integer> apply(Update<Integer> update)
+                    {
+                        mappingCount.incrementAndGet();
+
+                        return update.list;
+                    }
+                }))
+                .share();
+
+        TestSubscriber<Update<Integer>> test1 = mappedList.updates().test();
+        TestSubscriber<Update<Integer>> test2 = mappedList.updates().test();
+
+        list.add(4);
+
+        assertEquals(2, mappingCount.get());
+
+        test1.assertValueCount(2);
+        test2.assertValueCount(2);
+
+        assertEquals(Collections.singletonList(Change.inserted(3)), test1.values().get(1).changes);
+        assertEquals(Collections.singletonList(Change.inserted(3)), test2.values().get(1).changes);
+    }
+
+    @Test
+    public void testLateSubscriberReceivesReload()
+    {
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>(Arrays.asList(1, 2, 3));
+        FlowableList<Integer> sharedList = list.share();
+
+        TestSubscriber<Update<Integer>> test1 = sharedList.updates().test();
+
+        list.add(4);
+
+        TestSubscriber<Update<Integer>> test2 = sharedList.updates().test();
+
+        test2.assertValueCount(1);
+
+        Update<Integer> update = test2.values().get(0);
+
+        assertEquals(Arrays.asList(1, 2, 3, 4), update.list);
+        assertEquals(Collections.singletonList(Change.reloaded()), update.changes);
+
+        list.add(5);
+
+        test1.assertValueCount(3);
+        test2.assertValueCount(2);
+        assertEquals(Collections.singletonList(Change.inserted(4)), test2.values().get(1).changes);
+    }
+
+    @Test
+    public void testDisconnectsWithLastSubscriber()
+    {
+        BehaviorProcessor<List<Integer>> processor = BehaviorProcessor.create();
+        FlowableList<Integer> sharedList = FlowableList.diff(processor).share();
+
+        assertFalse(processor.hasSubscribers());
+
+        TestSubscriber<Update<Integer>> test1 = sharedList.updates().test();
+        TestSubscriber<Update<Integer>> test2 = sharedList.updates().test();
+
+        assertTrue(processor.hasSubscribers());
+
+        test1.dispose();
+
+        assertTrue(processor.hasSubscribers());
+
+        test2.dispose();
+
+        assertFalse(processor.hasSubscribers());
+
+        processor.onNext(Arrays.asList(1, 2));
+
+        TestSubscriber<Update<Integer>> test3 = sharedList.updates().test();
+
+        test3.assertValueCount(1);
+        assertEquals(Arrays.asList(1, 2), test3.values().get(0).list);
+    }
+}
@@ -96,4 +96,60 @@ public class TransformFlowableListTest
         assertEquals("B", subscriber1.values().get(0));
         assertEquals("C", subscriber2.values().get(0));
     }
+
+    @Test
+    public void testSubjectMapTransformBatchesFaults()
+    {
+        TestSubscriber<Update<Flowable<String>>> testSubscriber = new TestSubscriber<>();
+        TestSubscriber<List<Integer>> faultSubscriber = new TestSubscriber<>();
+
+        SubjectMap<Integer, String> subjectMap = new SubjectMap<>();
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>(Arrays.asList(1, 2, 3));
+
+        subjectMap.batchedFaults().subscribe(faultSubscriber);
+        list.map(subjectMap, true).updates().subscribe(testSubscriber);
+
+        faultSubscriber.assertValues(Arrays.asList(1, 2, 3));
+
+        Flowable<String> first = testSubscriber.values().get(0).list.get(0);
+
+        list.addAll(Arrays.asList(4, 5));
+        list.move(0, 4);
+        list.remove(0);
+
+        faultSubscriber.assertValues(Arrays.asList(1, 2, 3), Arrays.asList(4, 5));
+        testSubscriber.assertValueCount(4);
+
+        // the observables follow their keys through the changes
+        List<Flowable<String>> last = testSubscriber.values().get(3).list;
+
+        assertEquals(4, last.size());
+        assertSame(first, last.get(3));
+        assertSame(subjectMap.get(3), last.get(0));
+        assertSame(subjectMap.get(5), last.get(2));
+    }
+
+    @Test
+    public void testSubjectMapTransformFaultsOnSubscribe()
+    {
+        TestSubscriber<Update<Flowable<String>>> testSubscriber = new TestSubscriber<>();
+        TestSubscriber<Integer> faultSubscriber = new TestSubscriber<>();
+
+        SubjectMap<Integer, String> subjectMap = new SubjectMap<>();
+        SimpleFlowableList<Integer> list = new SimpleFlowableList<>(Arrays.asList(1, 2, 3));
+
+        subjectMap.faults().subscribe(faultSubscriber);
+        list.map(subjectMap).updates().subscribe(testSubscriber);
+        list.addAll(Arrays.asList(4, 5));
+
+        // none of the rows are bound yet, nothing is faulted
+        faultSubscriber.assertNoValues();
+
+        List<Flowable<String>> last = testSubscriber.values().get(1).list;
+
+        last.get(3).test();
+
+        faultSubscriber.assertValues(4);
+        assertSame(subjectMap.get(4), last.get(3));
+    }
 }
@@ -0,0 +1,156 @@
+package com.github.mproberts.rxtools.map;
+
+import io.reactivex.Flowable;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Action;
+import io.reactivex.functions.Consumer;
+import io.reactivex.subscribers.TestSubscriber;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LongSubjectMapTest
+{
+    private CompositeDisposable _subscription;
+    private LongSubjectMap<Integer> source;
+
+    @Before
+    public void setup()
+    {
+        source = new LongSubjectMap<>();
+        _subscription = new CompositeDisposable();
+    }
+
+    @After
+    public void teardown()
+    {
+        _subscription.clear();
+    }
+
+    @Test
+    public void testQueryAndIncrementOnFault()
+    {
+        final AtomicInteger counter = new AtomicInteger(0);
+        Disposable faultSubscription = source.faults()
+                .subscribe(new Consumer<Long>() {
+                    @Override
+                    public void accept(Long key)
+                    {
+                        source.onNext(key, counter.incrementAndGet());
+                    }
+                });
+
+        TestSubscriber<Integer> testSubscriber1 = new TestSubscriber<>();
+        TestSubscriber<Integer> testSubscriber2 = new TestSubscriber<>();
+        TestSubscriber<Integer> testSubscriber3 = new TestSubscriber<>();
+
+        _subscription.add(source.get(42).subscribeWith(testSubscriber1));
+        System.gc();
+
+        testSubscriber1.assertValues(1);
+
+        _subscription.add(source.get(42).subscribeWith(testSubscriber2));
+        System.gc();
+
+        testSubscriber1.assertValues(1);
+        testSubscriber2.assertValues(1);
+
+        _subscription.clear();
+        System.gc();
+
+        _subscription.add(source.get(42).subscribeWith(testSubscriber3));
+
+        testSubscriber3.assertValues(2);
+
+        faultSubscription.dispose();
+    }
+
+    @Test
+    public void testMissHandling()
+    {
+        final AtomicBoolean missHandlerCalled = new AtomicBoolean(false);
+
+        source.onNext(7, null, new Action() {
+            @Override
+            public void run()
+            {
+                missHandlerCalled.set(true);
+            }
+        });
+
+        assertTrue(missHandlerCalled.get());
+    }
+
+    @Test
+    public void testErrorEmission()
+    {
+        TestSubscriber<Integer> testSubscriber = new TestSubscriber<>();
+        Flowable<Integer> observable = source.get(-1);
+
+        _subscription.add(observable.subscribeWith(testSubscriber));
+
+        source.onNext(-1, 3);
+        source.onError(-1, new IllegalStateException());
+
+        testSubscriber.assertValues(3);
+        testSubscriber.assertError(IllegalStateException.class);
+
+        // the key was unbound by the error, a new observable is created
+        assertNotSame(observable, source.get(-1));
+    }
+
+    @Test
+    public void testManyKeys()
+    {
+        List<TestSubscriber<Integer>> subscribers = new ArrayList<>();
+
+        // spread the keys out so that many of them collide within the table
+        for (long i = 0; i < 1000; ++i) {
+            TestSubscriber<Integer> testSubscriber = new TestSubscriber<>();
+
+            _subscription.add(source.get(i << 32).subscribeWith(testSubscriber));
+            subscribers.add(testSubscriber);
+        }
+
+        // unbinding keys shifts their neighbours back into place
+        for (long i = 0; i < 1000; i += 3) {
+            source.onError(i << 32, new IllegalStateException());
+        }
+
+        for (long i = 0; i < 1000; ++i) {
+            source.onNext(i << 32, (int) i);
+        }
+
+        for (int i = 0; i < 1000; ++i) {
+            if (i % 3 == 0) {
+                subscribers.get(i).assertNoValues();
+            }
+            else {
+                subscribers.get(i).assertValues(i);
+            }
+        }
+    }
+
+    @Test
+    public void testCollectedKeysAreDropped()
+    {
+        for (long i = 0; i < 10000; ++i) {
+            source.get(i);
+
+            if (i % 1000 == 0) {
+                System.gc();
+            }
+        }
+
+        // unreferenced observables are collected and their records dropped as the table grows
+        assertTrue(source.size() < 10000);
+    }
+}
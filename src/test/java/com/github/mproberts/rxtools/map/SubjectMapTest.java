@@ -2,17 +2,30 @@ package com.github.mproberts.rxtools.map;
 
 import com.github.mproberts.rxtools.map.SubjectMap;
 import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.Single;
 import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Action;
 import io.reactivex.functions.Consumer;
+import io.reactivex.functions.Function;
+import io.reactivex.functions.Predicate;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.SingleSubject;
 import io.reactivex.subscribers.DisposableSubscriber;
 import io.reactivex.subscribers.TestSubscriber;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.reactivestreams.Subscription;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -555,4 +568,779 @@ public class SubjectMapTest
         // cleanup
         faultSubscription.dispose();
     }
+
+    @Test
+    public void testGetAll()
+    {
+        final List<List<String>> batches = new ArrayList<>();
+        final List<String> faults = new ArrayList<>();
+
+        Flowable<Integer> bound = source.get("a");
+        TestSubscriber<Integer> boundSubscriber = new TestSubscriber<>();
+
+        subscribe(bound, boundSubscriber);
+
+        Disposable batchSubscription = source.batchedFaults()
+                .subscribe(new Consumer<List<String>>() {
+                    @Override
+                    public void accept(List<String> keys)
+                    {
+                        batches.add(keys);
+
+                        for (String key : keys) {
+                            // satisfied before anyone has subscribed
+                            source.onNext(key, key.length());
+                        }
+                    }
+                });
+        Disposable faultSubscription = source.faults()
+                .subscribe(new Consumer<String>() {
+                    @Override
+                    public void accept(String key)
+                    {
+                        faults.add(key);
+                    }
+                });
+
+        batches.clear();
+        faults.clear();
+
+        List<Flowable<Integer>> observables = source.getAll(Arrays.asList("a", "bb", "ccc", "bb"));
+
+        assertEquals(4, observables.size());
+        assertSame(bound, observables.get(0));
+        assertSame(observables.get(1), observables.get(3));
+        assertSame(observables.get(2), source.get("ccc"));
+
+        // only the unbound keys are faulted, as a single batch
+        assertEquals(Collections.singletonList(Arrays.asList("bb", "ccc")), batches);
+        assertEquals(Arrays.asList("bb", "ccc"), faults);
+
+        TestSubscriber<Integer> testSubscriber = new TestSubscriber<>();
+
+        subscribe(observables.get(2), testSubscriber);
+
+        testSubscriber.assertValues(3);
+
+        // subscribing does not fault the key again
+        assertEquals(1, batches.size());
+
+        source.onNext("ccc", 4);
+
+        testSubscriber.assertValues(3, 4);
+
+        batchSubscription.dispose();
+        faultSubscription.dispose();
+    }
+
+    private static class RecordingLoader implements Function<Set<String>, Single<Map<String, Integer>>>
+    {
+        private final List<Set<String>> _batches = new ArrayList<>();
+        private final List<SingleSubject<Map<String, Integer>>> _results = new ArrayList<>();
+
+        @Override
+        public Single<Map<String, Integer>> apply(Set<String> keys)
+        {
+            SingleSubject<Map<String, Integer>> result = SingleSubject.create();
+
+            _batches.add(new HashSet<>(keys));
+            _results.add(result);
+
+            return result;
+        }
+
+        void complete(int batch)
+        {
+            Map<String, Integer> values = new HashMap<>();
+
+            for (String key : _batches.get(batch)) {
+                values.put(key, key.length());
+            }
+
+            _results.get(batch).onSuccess(values);
+        }
+    }
+
+    @Test
+    public void testLoader()
+    {
+        TestScheduler scheduler = new TestScheduler();
+        RecordingLoader loader = new RecordingLoader();
+        SubjectMap<String, Integer> subjectMap = new SubjectMap.Builder<String, Integer>()
+                .loader(loader)
+                .maxInFlight(1)
+                .scheduler(scheduler)
+                .build();
+
+        TestSubscriber<Integer> subscriberA = new TestSubscriber<>();
+        TestSubscriber<Integer> subscriberB = new TestSubscriber<>();
+        TestSubscriber<Integer> subscriberC = new TestSubscriber<>();
+
+        subscribe(subjectMap.get("a"), subscriberA);
+        scheduler.triggerActions();
+
+        assertEquals(Collections.singletonList(Collections.singleton("a")), loader._batches);
+
+        // the first batch is still in flight, these are queued up together
+        subscribe(subjectMap.get("bb"), subscriberB);
+        subscribe(subjectMap.getAll(Arrays.asList("ccc", "a")).get(0), subscriberC);
+        scheduler.triggerActions();
+
+        assertEquals(1, loader._batches.size());
+
+        loader.complete(0);
+        scheduler.triggerActions();
+
+        subscriberA.assertValues(1);
+        assertEquals(2, loader._batches.size());
+        assertEquals(new HashSet<>(Arrays.asList("bb", "ccc")), loader._batches.get(1));
+
+        loader.complete(1);
+
+        subscriberB.assertValues(2);
+        subscriberC.assertValues(3);
+    }
+
+    @Test
+    public void testLoaderSkipsAbandonedKeys()
+    {
+        TestScheduler scheduler = new TestScheduler();
+        RecordingLoader loader = new RecordingLoader();
+        SubjectMap<String, Integer> subjectMap = new SubjectMap.Builder<String, Integer>()
+                .loader(loader)
+                .scheduler(scheduler)
+                .build();
+
+        TestSubscriber<Integer> subscriberA = new TestSubscriber<>();
+        TestSubscriber<Integer> subscriberB = new TestSubscriber<>();
+        TestSubscriber<Integer> subscriberC = new TestSubscriber<>();
+        Flowable<Integer> observableB = subjectMap.get("bb");
+
+        subscribe(subjectMap.get("a"), subscriberA);
+        scheduler.triggerActions();
+
+        Disposable disposableB = observableB.subscribeWith(subscriberB);
+        subscribe(subjectMap.get("ccc"), subscriberC);
+
+        // the only subscriber to bb leaves before its batch has started
+        disposableB.dispose();
+
+        loader.complete(0);
+        scheduler.triggerActions();
+
+        assertEquals(Collections.singleton("ccc"), loader._batches.get(1));
+
+        loader.complete(1);
+
+        subscriberC.assertValues(3);
+
+        // subscribing again faults the key again since it was never loaded
+        TestSubscriber<Integer> subscriberB2 = new TestSubscriber<>();
+
+        subscribe(observableB, subscriberB2);
+        scheduler.triggerActions();
+
+        assertEquals(Collections.singleton("bb"), loader._batches.get(2));
+
+        loader.complete(2);
+
+        subscriberB2.assertValues(2);
+    }
+
+    @Test
+    public void testLoaderCancelsAbandonedBatch()
+    {
+        TestScheduler scheduler = new TestScheduler();
+        RecordingLoader loader = new RecordingLoader();
+        SubjectMap<String, Integer> subjectMap = new SubjectMap.Builder<String, Integer>()
+                .loader(loader)
+                .scheduler(scheduler)
+                .build();
+
+        Flowable<Integer> observable = subjectMap.get("a");
+        Disposable disposable = observable.subscribeWith(new TestSubscriber<Integer>());
+
+        scheduler.triggerActions();
+
+        assertTrue(loader._results.get(0).hasObservers());
+
+        // the only subscriber leaves while its batch is loading
+        disposable.dispose();
+
+        assertFalse(loader._results.get(0).hasObservers());
+
+        // the key is loaded again once it is resubscribed
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+
+        subscribe(observable, subscriber);
+        scheduler.triggerActions();
+
+        assertEquals(2, loader._batches.size());
+
+        loader.complete(1);
+
+        subscriber.assertValues(1);
+    }
+
+    @Test
+    public void testResubscribeWithoutLoaderDoesNotFault()
+    {
+        TestSubscriber<String> faultSubscriber = new TestSubscriber<>();
+
+        subscribe(source.faults(), faultSubscriber);
+
+        Flowable<Integer> observable = source.get("a");
+
+        observable.subscribeWith(new TestSubscriber<Integer>()).dispose();
+
+        faultSubscriber.assertValueCount(1);
+
+        // faults are delivered whether or not the key is subscribed, there is nothing to redo
+        subscribe(observable, new TestSubscriber<Integer>());
+
+        faultSubscriber.assertValueCount(1);
+    }
+
+    private static Consumer<List<String>> satisfyingFaults(final SubjectMap<String, Integer> subjectMap, final List<List<String>> batches, final AtomicInteger counter)
+    {
+        return new Consumer<List<String>>() {
+            @Override
+            public void accept(List<String> keys)
+            {
+                batches.add(keys);
+
+                for (String key : keys) {
+                    subjectMap.onNext(key, counter.incrementAndGet());
+                }
+            }
+        };
+    }
+
+    @Test
+    public void testStaleWhileRevalidate()
+    {
+        TestScheduler scheduler = new TestScheduler();
+        SubjectMap<String, Integer> subjectMap = new SubjectMap.Builder<String, Integer>()
+                .staleAfter(100, TimeUnit.MILLISECONDS)
+                .scheduler(scheduler)
+                .build();
+        TestSubscriber<List<String>> faultSubscriber = new TestSubscriber<>();
+
+        subscribe(subjectMap.batchedFaults(), faultSubscriber);
+
+        TestSubscriber<Integer> subscriber1 = new TestSubscriber<>();
+        Disposable disposable1 = subjectMap.get("a").subscribeWith(subscriber1);
+
+        subjectMap.onNext("a", 1);
+
+        subscriber1.assertValues(1);
+        disposable1.dispose();
+        System.gc();
+
+        scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+
+        // the value is still fresh, it is emitted without faulting
+        TestSubscriber<Integer> subscriber2 = new TestSubscriber<>();
+        Disposable disposable2 = subjectMap.get("a").subscribeWith(subscriber2);
+
+        subscriber2.assertValues(1);
+        faultSubscriber.assertValueCount(1);
+
+        disposable2.dispose();
+        System.gc();
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        // the stale value is emitted immediately and refreshed in the background
+        TestSubscriber<Integer> subscriber3 = new TestSubscriber<>();
+
+        subscribe(subjectMap.get("a"), subscriber3);
+
+        subscriber3.assertValues(1);
+        faultSubscriber.assertValueCount(2);
+
+        subjectMap.onNext("a", 2);
+
+        subscriber3.assertValues(1, 2);
+    }
+
+    @Test
+    public void testRefreshAhead()
+    {
+        TestScheduler scheduler = new TestScheduler();
+        SubjectMap<String, Integer> subjectMap = new SubjectMap.Builder<String, Integer>()
+                .staleAfter(100, TimeUnit.MILLISECONDS)
+                .refreshAhead(20, TimeUnit.MILLISECONDS)
+                .scheduler(scheduler)
+                .build();
+        List<List<String>> batches = new ArrayList<>();
+
+        subscribe(subjectMap.batchedFaults(), satisfyingFaults(subjectMap, batches, new AtomicInteger()));
+
+        TestSubscriber<Integer> subscriberA = new TestSubscriber<>();
+        TestSubscriber<Integer> subscriberB = new TestSubscriber<>();
+
+        subscribe(subjectMap.get("a"), subscriberA);
+        Disposable disposableB = subjectMap.get("b").subscribeWith(subscriberB);
+
+        batches.clear();
+
+        scheduler.advanceTimeBy(79, TimeUnit.MILLISECONDS);
+
+        assertEquals(0, batches.size());
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+        // both keys fall due together and are refreshed as one batch
+        assertEquals(1, batches.size());
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(batches.get(0)));
+        subscriberA.assertValues(1, 3);
+
+        // only the keys which are still bound are refreshed
+        disposableB.dispose();
+
+        scheduler.advanceTimeBy(80, TimeUnit.MILLISECONDS);
+
+        assertEquals(2, batches.size());
+        assertEquals(Collections.singletonList("a"), batches.get(1));
+        subscriberA.assertValues(1, 3, 5);
+    }
+
+    @Test
+    public void testRefreshAheadMustBeShorterThanStaleAfter()
+    {
+        try {
+            new SubjectMap.Builder<String, Integer>()
+                    .staleAfter(1, TimeUnit.SECONDS)
+                    .refreshAhead(5, TimeUnit.SECONDS);
+
+            fail("refreshing ahead by more than the stale age should be rejected");
+        }
+        catch (IllegalArgumentException expected) {
+        }
+
+        try {
+            new SubjectMap.Builder<String, Integer>()
+                    .staleAfter(1, TimeUnit.SECONDS)
+                    .refreshAhead(1, TimeUnit.SECONDS);
+
+            fail("refreshing ahead by the whole stale age should be rejected");
+        }
+        catch (IllegalArgumentException expected) {
+        }
+
+        try {
+            new SubjectMap.Builder<String, Integer>()
+                    .staleAfter(1, TimeUnit.SECONDS)
+                    .refreshAhead(500, TimeUnit.MILLISECONDS)
+                    .staleAfter(500, TimeUnit.MILLISECONDS);
+
+            fail("shortening the stale age to the refresh-ahead period should be rejected");
+        }
+        catch (IllegalArgumentException expected) {
+        }
+
+        // refreshing ahead by less than the stale age refreshes each value once per period
+        TestScheduler scheduler = new TestScheduler();
+        SubjectMap<String, Integer> subjectMap = new SubjectMap.Builder<String, Integer>()
+                .staleAfter(1, TimeUnit.SECONDS)
+                .refreshAhead(999, TimeUnit.MILLISECONDS)
+                .scheduler(scheduler)
+                .build();
+        List<List<String>> batches = new ArrayList<>();
+
+        subscribe(subjectMap.batchedFaults(), satisfyingFaults(subjectMap, batches, new AtomicInteger()));
+        subscribe(subjectMap.get("a"), new TestSubscriber<Integer>());
+
+        batches.clear();
+
+        scheduler.advanceTimeBy(0, TimeUnit.MILLISECONDS);
+
+        assertEquals(0, batches.size());
+
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+
+        assertEquals(10, batches.size());
+    }
+
+    @Test
+    public void testAbsentKeys()
+    {
+        TestScheduler scheduler = new TestScheduler();
+        SubjectMap<String, Integer> subjectMap = new SubjectMap.Builder<String, Integer>()
+                .absentTtl(100, TimeUnit.MILLISECONDS)
+                .scheduler(scheduler)
+                .build();
+        TestSubscriber<List<String>> faultSubscriber = new TestSubscriber<>();
+
+        subscribe(subjectMap.batchedFaults(), faultSubscriber);
+
+        TestSubscriber<Integer> subscriber1 = new TestSubscriber<>();
+
+        subscribe(subjectMap.get("a"), subscriber1);
+        faultSubscriber.assertValueCount(1);
+
+        subjectMap.onAbsent("a");
+
+        subscriber1.assertNoValues();
+        subscriber1.assertComplete();
+
+        // the key is known to be absent, it completes immediately without faulting
+        TestSubscriber<Integer> subscriber2 = new TestSubscriber<>();
+        TestSubscriber<Integer> subscriber3 = new TestSubscriber<>();
+
+        subscribe(subjectMap.get("a"), subscriber2);
+        subscribe(subjectMap.getAll(Collections.singletonList("a")).get(0), subscriber3);
+
+        subscriber2.assertComplete();
+        subscriber3.assertComplete();
+        faultSubscriber.assertValueCount(1);
+
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        // once the period has passed the key is faulted again
+        TestSubscriber<Integer> subscriber4 = new TestSubscriber<>();
+
+        subscribe(subjectMap.get("a"), subscriber4);
+        faultSubscriber.assertValueCount(2);
+
+        subjectMap.onNext("a", 1);
+
+        subscriber4.assertValues(1);
+        subscriber4.assertNotComplete();
+    }
+
+    @Test
+    public void testValueEndsAbsentPeriod()
+    {
+        TestScheduler scheduler = new TestScheduler();
+        SubjectMap<String, Integer> subjectMap = new SubjectMap.Builder<String, Integer>()
+                .absentTtl(10, TimeUnit.SECONDS)
+                .scheduler(scheduler)
+                .build();
+        TestSubscriber<List<String>> faultSubscriber = new TestSubscriber<>();
+
+        subscribe(subjectMap.batchedFaults(), faultSubscriber);
+        subscribe(subjectMap.get("a"), new TestSubscriber<Integer>());
+
+        subjectMap.onAbsent("a");
+
+        // handed out while the key is absent but only subscribed once a value was written
+        Flowable<Integer> absentObservable = subjectMap.get("a");
+        Flowable<Integer> absentBatchObservable = subjectMap.getAll(Collections.singletonList("a")).get(0);
+
+        faultSubscriber.assertValueCount(1);
+
+        // the key is not bound, the value is not retained but the key is no longer absent
+        subjectMap.onNext("a", 5);
+
+        TestSubscriber<Integer> subscriber1 = new TestSubscriber<>();
+        TestSubscriber<Integer> subscriber2 = new TestSubscriber<>();
+        TestSubscriber<Integer> subscriber3 = new TestSubscriber<>();
+
+        subscribe(subjectMap.get("a"), subscriber1);
+        subscribe(absentObservable, subscriber2);
+        subscribe(absentBatchObservable, subscriber3);
+
+        faultSubscriber.assertValueCount(2);
+        assertEquals(Collections.singletonList("a"), faultSubscriber.values().get(1));
+
+        subjectMap.onNext("a", 6);
+
+        subscriber1.assertValues(6);
+        subscriber2.assertValues(6);
+        subscriber3.assertValues(6);
+        subscriber1.assertNotComplete();
+        subscriber2.assertNotComplete();
+        subscriber3.assertNotComplete();
+    }
+
+    @Test
+    public void testSuppressEqualValues()
+    {
+        SubjectMap<String, Integer> subjectMap = new SubjectMap.Builder<String, Integer>()
+                .suppressEqualValues(true)
+                .build();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+
+        subscribe(subjectMap.get("a"), subscriber);
+
+        subjectMap.onNext("a", 1);
+        subjectMap.onNext("a", 1);
+        subjectMap.onNext("a", 2);
+        subjectMap.onNext("a", 2);
+        subjectMap.onNext("a", 1);
+
+        subscriber.assertValues(1, 2, 1);
+    }
+
+    @Test
+    public void testVersionedOnNext()
+    {
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>();
+
+        subscribe(source.get("a"), subscriber);
+
+        source.onNext("a", 2, 20);
+
+        // replayed and out of order versions are dropped
+        source.onNext("a", 2, 21);
+        source.onNext("a", 1, 10);
+        source.onNext("a", 3, 30);
+
+        subscriber.assertValues(20, 30);
+
+        // unversioned values are always emitted
+        source.onNext("a", 31);
+        source.onNext("a", 3, 32);
+
+        subscriber.assertValues(20, 30, 31);
+    }
+
+    @Test
+    public void testVersionedOnNextFromSubscriber()
+    {
+        final TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer value)
+            {
+                super.onNext(value);
+
+                if (value == 10) {
+                    // written while the value is being emitted, it follows once the emission is done
+                    source.onNext("a", 3, 30);
+                    source.onNext("a", 2, 20);
+
+                    assertEquals(1, values().size());
+                }
+            }
+        };
+
+        subscribe(source.get("a"), subscriber);
+
+        source.onNext("a", 1, 10);
+
+        subscriber.assertValues(10, 30);
+    }
+
+    @Test(timeout = 5000)
+    public void testVersionedOnNextDoesNotBlockOnSubscribers() throws Exception
+    {
+        final CountDownLatch isEmitting = new CountDownLatch(1);
+        final CountDownLatch isReleased = new CountDownLatch(1);
+        final TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer value)
+            {
+                super.onNext(value);
+
+                if (value == 10) {
+                    isEmitting.countDown();
+
+                    try {
+                        isReleased.await();
+                    }
+                    catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        };
+
+        subscribe(source.get("a"), subscriber);
+
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run()
+            {
+                source.onNext("a", 1, 10);
+            }
+        });
+
+        writer.start();
+        isEmitting.await();
+
+        // the subscriber is still running on the writer thread, this write must not wait for it
+        source.onNext("a", 2, 20);
+
+        subscriber.assertValues(10);
+
+        isReleased.countDown();
+        writer.join();
+
+        subscriber.assertValues(10, 20);
+    }
+
+    @Test
+    public void testInvalidate()
+    {
+        List<List<String>> batches = new ArrayList<>();
+
+        subscribe(source.batchedFaults(), satisfyingFaults(source, batches, new AtomicInteger()));
+
+        TestSubscriber<Integer> subscriberA = new TestSubscriber<>();
+        TestSubscriber<Integer> subscriberB = new TestSubscriber<>();
+
+        subscribe(source.get("a"), subscriberA);
+        subscribe(source.get("bb"), subscriberB);
+        Disposable disposableC = source.get("ccc").subscribeWith(new TestSubscriber<Integer>());
+
+        // keys which are no longer bound are not invalidated
+        disposableC.dispose();
+        batches.clear();
+
+        source.invalidateAll();
+
+        assertEquals(1, batches.size());
+        assertEquals(new HashSet<>(Arrays.asList("a", "bb")), new HashSet<>(batches.get(0)));
+        subscriberA.assertValueCount(2);
+        subscriberB.assertValueCount(2);
+        subscriberA.assertNotComplete();
+
+        source.invalidate(new Predicate<String>() {
+            @Override
+            public boolean test(String key)
+            {
+                return key.length() > 1;
+            }
+        });
+
+        assertEquals(Collections.singletonList("bb"), batches.get(1));
+        subscriberA.assertValueCount(2);
+        subscriberB.assertValueCount(3);
+    }
+
+    @Test
+    public void testInvalidationRate()
+    {
+        TestScheduler scheduler = new TestScheduler();
+        SubjectMap<String, Integer> subjectMap = new SubjectMap.Builder<String, Integer>()
+                .invalidationRate(2, 100, TimeUnit.MILLISECONDS)
+                .scheduler(scheduler)
+                .build();
+        List<List<String>> batches = new ArrayList<>();
+
+        subscribe(subjectMap.batchedFaults(), satisfyingFaults(subjectMap, batches, new AtomicInteger()));
+
+        subscribe(subjectMap.get("a"), new TestSubscriber<Integer>());
+        subscribe(subjectMap.get("b"), new TestSubscriber<Integer>());
+        subscribe(subjectMap.get("c"), new TestSubscriber<Integer>());
+        Disposable disposableD = subjectMap.get("d").subscribeWith(new TestSubscriber<Integer>());
+
+        batches.clear();
+
+        subjectMap.invalidateAll();
+        scheduler.triggerActions();
+
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+
+        // the remaining keys wait for the next period, dropping those no longer bound
+        disposableD.dispose();
+        scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, batches.size());
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+        assertEquals(2, batches.size());
+        assertFalse(batches.get(1).contains("d"));
+
+        Set<String> faulted = new HashSet<>(batches.get(0));
+
+        faulted.addAll(batches.get(1));
+
+        assertTrue(faulted.containsAll(Arrays.asList("a", "b", "c")));
+    }
+
+    @Test
+    public void testPrioritizedFaults()
+    {
+        TestSubscriber<String> faultSubscriber = new TestSubscriber<>(0L);
+
+        subscribe(source.prioritizedFaults(), faultSubscriber);
+
+        subscribe(source.get("a"), new TestSubscriber<Integer>());
+        Disposable disposableB = source.get("b").subscribeWith(new TestSubscriber<Integer>());
+        subscribe(source.get("c"), new TestSubscriber<Integer>());
+
+        // the most recently subscribed key is serviced first
+        faultSubscriber.request(1);
+        faultSubscriber.assertValues("c");
+
+        subscribe(source.get("d"), new TestSubscriber<Integer>());
+        subscribe(source.get("e"), new TestSubscriber<Integer>());
+
+        // hinted keys move ahead and keys with no subscribers left are dropped
+        source.prioritize(Arrays.asList("a", "z"));
+        disposableB.dispose();
+
+        faultSubscriber.request(10);
+        faultSubscriber.assertValues("c", "a", "e", "d");
+
+        // keys requested together are serviced in order
+        for (Flowable<Integer> observable : source.getAll(Arrays.asList("f", "g"))) {
+            subscribe(observable, new TestSubscriber<Integer>());
+        }
+
+        faultSubscriber.assertValues("c", "a", "e", "d", "f", "g");
+    }
+
+    @Test
+    public void testPrioritizedFaultsAreBounded()
+    {
+        PrioritizedFaults<String> prioritizedFaults = (PrioritizedFaults<String>) source.prioritizedFaults();
+
+        // nothing is queued without a subscriber
+        subscribe(source.get("a"), new TestSubscriber<Integer>());
+
+        assertEquals(0, prioritizedFaults.size());
+
+        TestSubscriber<String> faultSubscriber = new TestSubscriber<>(0L);
+
+        prioritizedFaults.subscribe(faultSubscriber);
+
+        // keys which are no longer wanted are purged as the queue grows
+        for (int i = 0; i < 1000; ++i) {
+            source.get("key" + i).subscribeWith(new TestSubscriber<Integer>()).dispose();
+        }
+
+        assertTrue(prioritizedFaults.size() < 200);
+
+        subscribe(source.get("b"), new TestSubscriber<Integer>());
+
+        // the queue is cleared once the last subscriber leaves
+        faultSubscriber.dispose();
+
+        assertEquals(0, prioritizedFaults.size());
+
+        final List<Throwable> errors = new ArrayList<>();
+
+        prioritizedFaults.subscribe(new FlowableSubscriber<String>() {
+            @Override
+            public void onSubscribe(Subscription s)
+            {
+                s.request(0);
+            }
+
+            @Override
+            public void onNext(String key)
+            {
+            }
+
+            @Override
+            public void onError(Throwable error)
+            {
+                errors.add(error);
+            }
+
+            @Override
+            public void onComplete()
+            {
+            }
+        });
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof IllegalArgumentException);
+    }
 }